@@ -0,0 +1,84 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.AdminApplication;
+import com.erp.admin.model.CompanyHoliday;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.repository.CompanyHolidayRepository;
+import com.erp.admin.repository.UserProfileRepository;
+import com.erp.admin.service.LeaveService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// The application booted once per fork against the in-memory H2 database from the test resources,
+// seeded with one employee (with a balance for the current year) and a dense holiday calendar.
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    static final String EMPLOYEE = "BENCH-001";
+
+    // Every 6th day of the year is a holiday: ~60 per year, far more than any real calendar
+    static final int HOLIDAY_EVERY_N_DAYS = 6;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(AdminApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+
+        UserProfile user = new UserProfile();
+        user.setEmployeeSerialNumber(EMPLOYEE);
+        user.setEmployeeName("Benchmark Employee");
+        user.setDepartment("Engineering");
+        user.setReportingOfficer("BENCH-MGR");
+        bean(UserProfileRepository.class).save(user);
+        bean(LeaveService.class).provisionLeaveBalance(EMPLOYEE, LocalDate.now().getYear());
+
+        List<CompanyHoliday> holidays = new ArrayList<>();
+        int thisYear = LocalDate.now().getYear();
+        for (int year = thisYear - 1; year <= thisYear + 1; year++) {
+            LocalDate firstDay = LocalDate.of(year, 1, 1);
+            for (int day = HOLIDAY_EVERY_N_DAYS; day <= firstDay.lengthOfYear(); day += HOLIDAY_EVERY_N_DAYS) {
+                CompanyHoliday holiday = new CompanyHoliday();
+                holiday.setHolidayName("Holiday " + day);
+                holiday.setHolidayDate(firstDay.plusDays(day - 1L));
+                holiday.setYear(year);
+                holidays.add(holiday);
+            }
+        }
+        bean(CompanyHolidayRepository.class).saveAll(holidays);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // First Monday-Tuesday of the current year on which neither day is a holiday
+    static LocalDate firstFreeWorkingPair() {
+        LocalDate day = LocalDate.now().withDayOfYear(1);
+        while (day.getDayOfWeek() != DayOfWeek.MONDAY
+                || day.getDayOfYear() % HOLIDAY_EVERY_N_DAYS == 0
+                || (day.getDayOfYear() + 1) % HOLIDAY_EVERY_N_DAYS == 0) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+}
@@ -0,0 +1,70 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.dto.EmployeeSearchHit;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.service.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead lookups on the employee search index, without a database: the index is filled through
+// onSaved (applied immediately outside a transaction) with generated employees. Short prefixes
+// match a large share of the company and are the worst case.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Anita", "Arjun", "Priya", "Rahul", "Sanjay", "Meena", "Kiran",
+            "Deepak", "Lakshmi", "Ravi", "Farah", "Joseph", "Nandini", "Vikram", "Sunita", "Imran"};
+    private static final String[] LAST_NAMES = {"Sharma", "Iyer", "Patel", "Reddy", "Nair", "Gupta", "Singh", "Das",
+            "Menon", "Khan", "Joshi", "Fernandes"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Finance", "Human Resources", "Operations", "Sales",
+            "Legal", "Procurement"};
+    private static final String[] DESIGNATIONS = {"Analyst", "Senior Analyst", "Engineer", "Senior Engineer", "Manager",
+            "Associate"};
+
+    @Param({"20000"})
+    private int employees;
+
+    // One letter, a name prefix, two terms, an exact serial number
+    @Param({"a", "arj", "arjun sh", "EMP-01234", "fin analyst"})
+    private String query;
+
+    private EmployeeSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new EmployeeSearchIndex();
+        for (int i = 0; i < employees; i++) {
+            UserProfile profile = new UserProfile();
+            profile.setSrNo((long) i + 1);
+            profile.setEmployeeSerialNumber(String.format("EMP-%05d", i));
+            profile.setEmployeeName(FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length]);
+            profile.setDepartment(DEPARTMENTS[i % DEPARTMENTS.length]);
+            profile.setDesignation(DESIGNATIONS[i % DESIGNATIONS.length]);
+            profile.setReportingOfficer(String.format("MGR-%03d", i % 200));
+            index.onSaved(profile);
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeSearchHit> search() {
+        return index.search(query, 20);
+    }
+}
@@ -0,0 +1,66 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.model.LeaveBalance;
+import com.erp.admin.model.LeaveType;
+import com.erp.admin.repository.LeaveBalanceRepository;
+import com.erp.admin.service.LeaveService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Balance read and the guarded check-and-deduct UPDATE used by approvals, against H2.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaveBalanceBenchmark {
+
+    private LeaveService leaveService;
+    private LeaveBalanceRepository leaveBalanceRepository;
+    private TransactionTemplate transactionTemplate;
+    private int year;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        leaveService = app.bean(LeaveService.class);
+        leaveBalanceRepository = app.bean(LeaveBalanceRepository.class);
+        transactionTemplate = new TransactionTemplate(app.bean(PlatformTransactionManager.class));
+        year = LocalDate.now().getYear();
+    }
+
+    @Benchmark
+    public LeaveBalance getLeaveBalance() {
+        return leaveService.getLeaveBalance(ApplicationState.EMPLOYEE, year);
+    }
+
+    // One deduction and its restore per transaction, so the balance never runs out
+    @Benchmark
+    public int deductAndRestore() {
+        return transactionTemplate.execute(status -> {
+            int deducted = leaveBalanceRepository.deductBalance(ApplicationState.EMPLOYEE, year, LeaveType.CASUAL, 1);
+            return deducted + leaveBalanceRepository.restoreBalance(ApplicationState.EMPLOYEE, year, LeaveType.CASUAL, 1, 12);
+        });
+    }
+
+    // A deduction the guard refuses: the path taken by an approval exceeding the balance
+    @Benchmark
+    public int deductRefused() {
+        return transactionTemplate.execute(status ->
+                leaveBalanceRepository.deductBalance(ApplicationState.EMPLOYEE, year, LeaveType.CASUAL, 1000));
+    }
+}
@@ -0,0 +1,66 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.model.LeaveBalance;
+import com.erp.admin.model.LeaveRequest;
+import com.erp.admin.model.LeaveType;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.service.LeaveService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// The transactional service calls end to end on H2. Each operation deletes its request again so
+// the overlap check and the balance stay in the same state for every invocation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaveWorkflowBenchmark {
+
+    private LeaveService leaveService;
+    private LocalDate startDate;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        leaveService = app.bean(LeaveService.class);
+        startDate = ApplicationState.firstFreeWorkingPair();
+    }
+
+    @Benchmark
+    public LeaveBalance applyAndDelete() throws Exception {
+        LeaveRequest applied = leaveService.applyLeave(newRequest());
+        return leaveService.deleteLeaveRequest(applied.getRequestId());
+    }
+
+    @Benchmark
+    public LeaveBalance applyApproveAndDelete() throws Exception {
+        LeaveRequest applied = leaveService.applyLeave(newRequest());
+        leaveService.approveLeave(applied.getRequestId(), "BENCH-MGR");
+        return leaveService.deleteLeaveRequest(applied.getRequestId());
+    }
+
+    private LeaveRequest newRequest() {
+        UserProfile user = new UserProfile();
+        user.setEmployeeSerialNumber(ApplicationState.EMPLOYEE);
+        LeaveRequest request = new LeaveRequest();
+        request.setUserProfile(user);
+        request.setLeaveType(LeaveType.CASUAL);
+        request.setStartDate(startDate);
+        request.setEndDate(startDate.plusDays(1));
+        request.setReason("Benchmark");
+        return request;
+    }
+}
@@ -0,0 +1,131 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.model.LeaveRequest;
+import com.erp.admin.model.LeaveStatus;
+import com.erp.admin.model.LeaveType;
+import com.erp.admin.model.UserProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// JSON rendering of the list payloads, without a database. The mapper is built like the
+// application's (Java time module, ISO dates). "WithInlinePhoto" adds the photo bytes to each
+// profile, the shape the API had while photos were stored in user_profile.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    // A typical compressed passport photo
+    @Param({"51200"})
+    private int photoBytes;
+
+    private ObjectMapper objectMapper;
+    private List<LeaveRequest> leaveRequests;
+    private List<LeaveRequestView> leaveRequestViews;
+    private List<UserProfile> userProfiles;
+    private List<ProfileWithPhoto> userProfilesWithPhoto;
+
+    record ProfileWithPhoto(UserProfile profile, byte[] photo) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+
+        leaveRequests = new ArrayList<>(size);
+        leaveRequestViews = new ArrayList<>(size);
+        userProfiles = new ArrayList<>(size);
+        userProfilesWithPhoto = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserProfile user = profile(i);
+            LeaveRequest request = leaveRequest(i, user);
+            byte[] photo = new byte[photoBytes];
+            random.nextBytes(photo);
+
+            userProfiles.add(user);
+            userProfilesWithPhoto.add(new ProfileWithPhoto(user, photo));
+            leaveRequests.add(request);
+            leaveRequestViews.add(LeaveRequestView.of(request));
+        }
+    }
+
+    @Benchmark
+    public byte[] leaveRequestEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(leaveRequests);
+    }
+
+    @Benchmark
+    public byte[] leaveRequestViews() throws Exception {
+        return objectMapper.writeValueAsBytes(leaveRequestViews);
+    }
+
+    @Benchmark
+    public byte[] userProfiles() throws Exception {
+        return objectMapper.writeValueAsBytes(userProfiles);
+    }
+
+    @Benchmark
+    public byte[] userProfilesWithInlinePhoto() throws Exception {
+        return objectMapper.writeValueAsBytes(userProfilesWithPhoto);
+    }
+
+    private UserProfile profile(int i) {
+        UserProfile user = new UserProfile();
+        user.setSrNo((long) i + 1);
+        user.setEmployeeSerialNumber(String.format("EMP-%05d", i));
+        user.setEmployeeName("Employee " + i);
+        user.setEmailAddress("employee" + i + "@example.com");
+        user.setAddress("Flat " + i + ", Example Street, Example City");
+        user.setDesignation("Engineer");
+        user.setDepartment("Engineering");
+        user.setReportingOfficer("MGR-001");
+        user.setDateOfJoining(LocalDate.of(2020, 1, 1).plusDays(i));
+        user.setGrossSalary(new BigDecimal("85000.00"));
+        user.setMedicalBackground("None declared");
+        user.setLegalBackground("None declared");
+        user.setPhotoFilePath("photo_" + i + ".jpg");
+        return user;
+    }
+
+    private LeaveRequest leaveRequest(int i, UserProfile user) {
+        LeaveRequest request = new LeaveRequest();
+        request.setRequestId((long) i + 1);
+        request.setUserProfile(user);
+        request.setLeaveType(LeaveType.values()[i % 4]);
+        request.setStartDate(LocalDate.of(2025, 1, 1).plusDays(i % 300));
+        request.setEndDate(request.getStartDate().plusDays(2));
+        request.setTotalDays(3);
+        request.setReason("Family function");
+        request.setStatus(LeaveStatus.APPROVED);
+        request.setApprovedBy("MGR-001");
+        request.setApprovedDate(request.getStartDate().minusDays(5));
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.erp.admin.benchmark;
+
+import com.erp.admin.service.HolidayCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Working-day counting behind LeaveService.calculateWorkingDays: the cached lookup for short and
+// long ranges, the cold path that reloads holidays from the database, and compiling one year.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkingDaysBenchmark {
+
+    private static final Set<DayOfWeek> WEEKEND = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    // 5 = a typical week off, 400 = a range crossing a year boundary
+    @Param({"5", "400"})
+    private int rangeDays;
+
+    private HolidayCalendar holidayCalendar;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<LocalDate> holidays;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState app) {
+        holidayCalendar = app.bean(HolidayCalendar.class);
+        startDate = LocalDate.now().withDayOfYear(1).minusDays(rangeDays / 2);
+        endDate = startDate.plusDays(rangeDays - 1L);
+
+        holidays = new ArrayList<>();
+        LocalDate firstDay = LocalDate.now().withDayOfYear(1);
+        for (int day = ApplicationState.HOLIDAY_EVERY_N_DAYS; day <= firstDay.lengthOfYear(); day += ApplicationState.HOLIDAY_EVERY_N_DAYS) {
+            holidays.add(firstDay.plusDays(day - 1L));
+        }
+    }
+
+    @Benchmark
+    public int countWorkingDaysCached() {
+        return holidayCalendar.countWorkingDays(startDate, endDate);
+    }
+
+    // Every spanned year is recompiled from a holiday query, as after a holiday change
+    @Benchmark
+    public int countWorkingDaysAfterInvalidate() {
+        holidayCalendar.invalidateAll();
+        return holidayCalendar.countWorkingDays(startDate, endDate);
+    }
+
+    @Benchmark
+    public HolidayCalendar.YearCalendar compileYear() {
+        return HolidayCalendar.YearCalendar.compile(LocalDate.now().getYear(), holidays, WEEKEND);
+    }
+}
@@ -0,0 +1,43 @@
+package com.erp.admin.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class FileStorageConfig {
+
+    // Writes the document parts of one upload in parallel; bounded so a burst cannot spawn unbounded threads
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor fileStorageExecutor(@Value("${file.upload.io-threads:8}") int ioThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ioThreads);
+        executor.setMaxPoolSize(ioThreads);
+        executor.setQueueCapacity(ioThreads * 16);
+        executor.setThreadNamePrefix("file-io-");
+        // When saturated the request thread writes its own parts instead of failing the upload
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // spring.threads.virtual.enabled=true on Java 21+: one virtual thread per part instead of a pool.
+    // The limit keeps the same ceiling on in-flight writes as pool + queue above; a caller past it
+    // waits (parks its virtual thread) rather than failing the upload.
+    @Bean("fileStorageExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualFileStorageExecutor(@Value("${file.upload.io-threads:8}") int ioThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("file-io-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(ioThreads + ioThreads * 16);
+        return executor;
+    }
+}
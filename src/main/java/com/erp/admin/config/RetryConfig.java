@@ -0,0 +1,11 @@
+package com.erp.admin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+// The retry advice is ordered ahead of the transaction advice (EnableRetry's default order), so every
+// attempt of a @Retryable @Transactional method runs in a new transaction and re-reads its rows
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
@@ -0,0 +1,76 @@
+package com.erp.admin.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Hibernate second-level cache on Caffeine through JCache. Every region is created here with a size
+// bound (and optional TTL) from cache.hibernate.<region>.max-size / .expire-after-write; Hibernate is
+// told to fail on any region not declared below, so nothing can grow unbounded by accident.
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String USER_PROFILE = "userProfile";
+    private static final String USER_PROFILE_NATURAL_ID = "userProfileNaturalId";
+    private static final String COMPANY_HOLIDAY = "companyHoliday";
+    private static final String LEAVE_BALANCE = "leaveBalance";
+    private static final String QUERY_RESULTS = "default-query-results-region";
+    // One entry per table; must never expire or be evicted while queries are cached
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private static final Map<String, Long> DEFAULT_MAX_SIZES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_MAX_SIZES.put(USER_PROFILE, 10_000L);
+        DEFAULT_MAX_SIZES.put(USER_PROFILE_NATURAL_ID, 10_000L);
+        DEFAULT_MAX_SIZES.put(COMPANY_HOLIDAY, 2_000L);
+        DEFAULT_MAX_SIZES.put(LEAVE_BALANCE, 20_000L);
+        DEFAULT_MAX_SIZES.put(QUERY_RESULTS, 2_000L);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        // A manager of our own rather than the JVM-wide default, so each application context gets fresh regions
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        DEFAULT_MAX_SIZES.forEach((region, defaultMaxSize) -> {
+            String prefix = "cache.hibernate." + region + ".";
+            long maxSize = environment.getProperty(prefix + "max-size", Long.class, defaultMaxSize);
+            String expireAfterWrite = environment.getProperty(prefix + "expire-after-write");
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            if (expireAfterWrite != null && !expireAfterWrite.isBlank()) {
+                Duration ttl = DurationStyle.detectAndParse(expireAfterWrite);
+                configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            }
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        });
+        cacheManager.createCache(UPDATE_TIMESTAMPS, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.erp.admin.config;
+
+import com.erp.admin.service.RequestRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+// Global cap on multipart uploads in progress. Runs before the DispatcherServlet parses the body, so an
+// upload over the cap is refused with 429 before it is spooled to disk or holds a connection, and the
+// read endpoints keep their threads while a client floods the upload endpoints.
+@Component
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final Duration retryAfter;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final Counter rejected;
+
+    public UploadAdmissionFilter(@Value("${upload.admission.max-concurrent:16}") int maxConcurrent,
+                                 @Value("${upload.admission.retry-after:5s}") Duration retryAfter,
+                                 CorsConfigurationSource corsConfigurationSource,
+                                 MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.retryAfter = retryAfter;
+        this.corsConfigurationSource = corsConfigurationSource;
+        Gauge.builder("upload.admission.in.flight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Multipart uploads currently admitted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("upload.admission.rejected")
+                .description("Multipart uploads refused because the concurrency cap was reached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            reject(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Spring MVC's CORS handling never sees this request, so the browser could not read the 429 without it
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null && !new DefaultCorsProcessor().processRequest(cors, request, response)) {
+            return;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RequestRateLimiter.retryAfterSeconds(retryAfter)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Too many uploads in progress, please retry later\"}");
+    }
+}
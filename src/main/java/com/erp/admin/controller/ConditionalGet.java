@@ -0,0 +1,42 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.dto.ResourceVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.function.Supplier;
+
+// Conditional GET for JSON reads: the caller passes the version (one aggregate query) and a supplier
+// for the body, which only runs when the client's ETag / Last-Modified no longer match (else 304).
+final class ConditionalGet {
+
+    // Clients may keep the response but must revalidate it on every use
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(HttpServletRequest request, ResourceVersion version, Supplier<T> body) {
+        String etag = version.etag();
+        long lastModified = version.lastModifiedMillis();
+
+        // Wrapped without the response so the headers are only written once, by the ResponseEntity below
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified).build();
+        }
+        return headers(ResponseEntity.ok(), etag, lastModified).body(body.get());
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder, String etag, long lastModified) {
+        builder.eTag(etag).cacheControl(CACHE_CONTROL);
+        // No rows, no timestamp: the ETag alone carries the version
+        if (lastModified >= 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+}
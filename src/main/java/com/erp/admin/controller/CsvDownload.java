@@ -0,0 +1,74 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.service.CsvExportService;
+import com.erp.admin.service.RequestRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// CSV file downloads streamed from the service as rows are read; gzip=true sends a .csv.gz file instead.
+// Each download holds one of the service's export slots from here until the body has been written;
+// when none is free the answer is 429 with Retry-After.
+final class CsvDownload {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    @FunctionalInterface
+    interface CsvWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static final ObjectMapper ERROR_WRITER = new ObjectMapper();
+
+    private CsvDownload() {
+    }
+
+    // The handler has to be declared as ResponseEntity<StreamingResponseBody> to be streamed, so
+    // validation errors are written through the same body type, in the usual {"error": ...} shape
+    static ResponseEntity<StreamingResponseBody> badRequest(String error) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> ERROR_WRITER.writeValue(out, Map.of("error", error)));
+    }
+
+    static ResponseEntity<StreamingResponseBody> respond(CsvExportService exports, Duration retryAfter,
+                                                         String fileName, boolean gzip, CsvWriter writer) {
+        if (!exports.tryAcquireSlot()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RequestRateLimiter.retryAfterSeconds(retryAfter)))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> ERROR_WRITER.writeValue(out, Map.of("error", "Too many exports running, please retry later")));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024, true);
+                    writer.write(compressed);
+                    compressed.finish();
+                } else {
+                    writer.write(out);
+                }
+                out.flush();
+            } finally {
+                exports.releaseSlot();
+            }
+        };
+        String attachment = gzip ? fileName + ".csv.gz" : fileName + ".csv";
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(attachment).build().toString())
+                .body(body);
+    }
+}
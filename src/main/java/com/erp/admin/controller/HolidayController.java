@@ -2,6 +2,7 @@ package com.erp.admin.controller;
 
 import com.erp.admin.model.CompanyHoliday;
 import com.erp.admin.service.LeaveService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,17 +23,17 @@ public class HolidayController {
     @PostMapping("/add")
     public ResponseEntity<?> addHoliday(@RequestBody CompanyHoliday holiday) {
         try {
-            // Add logic to save holiday
-            return ResponseEntity.ok(holiday);
+            CompanyHoliday savedHoliday = leaveService.addHoliday(holiday);
+            return ResponseEntity.ok(savedHoliday);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
-    // Get all holidays for a year
+    // Get all holidays for a year (conditional: 304 while the year's holidays are unchanged)
     @GetMapping("/{year}")
-    public ResponseEntity<List<CompanyHoliday>> getHolidays(@PathVariable Integer year) {
-        List<CompanyHoliday> holidays = leaveService.getHolidays(year);
-        return ResponseEntity.ok(holidays);
+    public ResponseEntity<List<CompanyHoliday>> getHolidays(@PathVariable Integer year, HttpServletRequest request) {
+        return ConditionalGet.respond(request, leaveService.getHolidaysVersion(year),
+                () -> leaveService.getHolidays(year));
     }
 }
@@ -1,16 +1,32 @@
 package com.erp.admin.controller;
 
+import com.erp.admin.dto.BatchDecisionRequest;
+import com.erp.admin.dto.BatchDecisionResult;
+import com.erp.admin.dto.BatchItemResult;
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.dto.ResourceVersion;
 import com.erp.admin.model.*;
+import com.erp.admin.service.CsvExportService;
+import com.erp.admin.service.IdempotencyService;
+import com.erp.admin.service.LeaveConflictException;
 import com.erp.admin.service.LeaveService;
+import com.erp.admin.service.RequestFingerprint;
+import com.erp.admin.service.RequestRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -23,12 +39,54 @@ public class LeaveController {
     
     private static final Logger logger = LoggerFactory.getLogger(LeaveController.class);
     
+    // Returned when the service's optimistic-lock retries are used up
+    private static final String CONCURRENT_UPDATE = "Leave request was changed concurrently, please retry";
+
+    // Widest window /calendar/headcount answers; it builds one entry per day
+    private static final int MAX_HEADCOUNT_DAYS = 366;
+    
     @Autowired
     private LeaveService leaveService;
     
-    // Apply for leave - Updated to handle frontend format
+    @Autowired
+    private CsvExportService csvExportService;
+    
+    @Value("${export.retry-after:30s}")
+    private Duration exportRetryAfter;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private RequestRateLimiter requestRateLimiter;
+    
+    // Apply for leave - Updated to handle frontend format. A retry carrying the same Idempotency-Key
+    // gets the first response back instead of applying (and validating) the leave again.
     @PostMapping("/apply")
-    public ResponseEntity<?> applyLeave(@RequestBody LeaveRequest leaveRequest) {
+    public ResponseEntity<?> applyLeave(@RequestBody LeaveRequest leaveRequest,
+                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                        HttpServletRequest request) {
+        String client = RateLimited.clientOf(request);
+        return idempotencyService.execute("leave-apply", idempotencyKey, RequestFingerprint.of(request).json(leaveRequest),
+                () -> doApplyLeave(leaveRequest, client));
+    }
+    
+    private ResponseEntity<?> doApplyLeave(LeaveRequest leaveRequest, String client) {
+        // Per-caller and per-employee token buckets: a flood of applications is refused before any query runs.
+        // The serial number comes from the body, so the caller's bucket is what stops a client rotating it;
+        // applications without one are limited per caller rather than sharing a single bucket.
+        String employeeSerialNumber = leaveRequest.getUserProfile() == null ? null
+                : leaveRequest.getUserProfile().getEmployeeSerialNumber();
+        if (employeeSerialNumber == null || employeeSerialNumber.isBlank()) {
+            employeeSerialNumber = client;
+        }
+        Duration wait = requestRateLimiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY_CLIENT, client);
+        if (wait.isZero()) {
+            wait = requestRateLimiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY, employeeSerialNumber);
+        }
+        if (!wait.isZero()) {
+            return RateLimited.respond(wait, Map.of("error", "Too many leave applications, please retry later"));
+        }
         try {
             LeaveRequest savedRequest = leaveService.applyLeave(leaveRequest);
             return ResponseEntity.ok(savedRequest);
@@ -39,14 +97,16 @@ public class LeaveController {
     
     // Get user's leave history - Updated to return frontend format
     @GetMapping("/history/{employeeSerialNumber}")
-    public ResponseEntity<List<LeaveRequest>> getLeaveHistory(@PathVariable String employeeSerialNumber) {
-        List<LeaveRequest> history = leaveService.getUserLeaveHistory(employeeSerialNumber);
-        return ResponseEntity.ok(history);
+    public ResponseEntity<List<LeaveRequestView>> getLeaveHistory(@PathVariable String employeeSerialNumber,
+                                                                  HttpServletRequest request) {
+        return ConditionalGet.respond(request, leaveService.getLeaveHistoryVersion(employeeSerialNumber),
+                () -> leaveService.getUserLeaveHistory(employeeSerialNumber));
     }
     
     // Get leave balance for user - Enhanced with detailed logging and error handling
     @GetMapping("/balance/{employeeSerialNumber}/{year}")
-    public ResponseEntity<?> getLeaveBalance(@PathVariable String employeeSerialNumber, @PathVariable int year) {
+    public ResponseEntity<?> getLeaveBalance(@PathVariable String employeeSerialNumber, @PathVariable int year,
+                                             HttpServletRequest request) {
         logger.info("Received request for leave balance - Employee: {}, Year: {}", employeeSerialNumber, year);
         
         try {
@@ -63,17 +123,17 @@ public class LeaveController {
                         .body(Map.of("error", "Invalid year provided"));
             }
             
-            logger.info("Calling leaveService.getLeaveBalance for employee: {}, year: {}", employeeSerialNumber, year);
-            LeaveBalance balance = leaveService.getLeaveBalance(employeeSerialNumber, year);
+            // Version first: an unchanged balance is answered with 304 without loading it
+            ResourceVersion version = leaveService.getLeaveBalanceVersion(employeeSerialNumber, year);
             
-            if (balance == null) {
-                logger.error("Leave balance is null for employee: {}, year: {}", employeeSerialNumber, year);
+            if (version.isEmpty()) {
+                logger.warn("No leave balance for employee: {}, year: {}", employeeSerialNumber, year);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "Employee not found or unable to create leave balance for employee: " + employeeSerialNumber));
+                        .body(Map.of("error", "No leave balance provisioned for employee: " + employeeSerialNumber + " and year: " + year));
             }
             
-            logger.info("Successfully retrieved leave balance for employee: {}, balance ID: {}", employeeSerialNumber, balance.getBalanceId());
-            return ResponseEntity.ok(balance);
+            logger.info("Successfully retrieved leave balance version for employee: {}, etag: {}", employeeSerialNumber, version.etag());
+            return ConditionalGet.respond(request, version, () -> leaveService.getLeaveBalance(employeeSerialNumber, year));
             
         } catch (Exception e) {
             logger.error("Exception occurred while fetching leave balance for employee: {}, year: {}", employeeSerialNumber, year, e);
@@ -83,23 +143,46 @@ public class LeaveController {
         }
     }
     
+    // Provision every employee's leave balance for a year in one set-based insert (admin only)
+    @PostMapping("/admin/balances/provision/{year}")
+    public ResponseEntity<?> provisionLeaveBalances(@PathVariable int year) {
+        if (year < 2020 || year > 2030) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid year provided"));
+        }
+        try {
+            int created = leaveService.provisionLeaveBalances(year);
+            return ResponseEntity.ok(Map.of("year", year, "created", created));
+        } catch (Exception e) {
+            logger.error("Failed to provision leave balances for year: {}", year, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to provision leave balances: " + e.getMessage()));
+        }
+    }
+    
     // Delete leave request
     @DeleteMapping("/delete/{requestId}")
     public ResponseEntity<?> deleteLeave(@PathVariable Long requestId) {
         try {
             LeaveBalance updatedBalance = leaveService.deleteLeaveRequest(requestId);
             return ResponseEntity.ok(updatedBalance);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", CONCURRENT_UPDATE));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
+    // 409 when the request was decided or deleted concurrently
     @PutMapping("/approve/{requestId}")
     public ResponseEntity<?> approveLeave(@PathVariable Long requestId, @RequestBody Map<String, String> request) {
         try {
             String approvedBy = request.get("approvedBy");
             LeaveRequest approved = leaveService.approveLeave(requestId, approvedBy);
             return ResponseEntity.ok(approved);
+        } catch (LeaveConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", CONCURRENT_UPDATE));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -111,35 +194,124 @@ public class LeaveController {
             String rejectionReason = request.get("rejectionReason");
             LeaveRequest rejected = leaveService.rejectLeave(requestId, rejectionReason);
             return ResponseEntity.ok(rejected);
+        } catch (LeaveConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", CONCURRENT_UPDATE));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
+    // Bulk approve for manager queues - per-item outcomes, one failing item does not undo the others
+    @PutMapping("/approve-batch")
+    public ResponseEntity<?> approveLeaves(@RequestBody BatchDecisionRequest request) {
+        if (request.requestIds() == null || request.requestIds().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "requestIds is required"));
+        }
+        try {
+            List<BatchItemResult> results = leaveService.approveLeaves(request.requestIds(), request.approvedBy());
+            return ResponseEntity.ok(BatchDecisionResult.of(results));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", CONCURRENT_UPDATE));
+        } catch (Exception e) {
+            logger.error("Batch approval failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/reject-batch")
+    public ResponseEntity<?> rejectLeaves(@RequestBody BatchDecisionRequest request) {
+        if (request.requestIds() == null || request.requestIds().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "requestIds is required"));
+        }
+        try {
+            List<BatchItemResult> results = leaveService.rejectLeaves(request.requestIds(), request.rejectionReason());
+            return ResponseEntity.ok(BatchDecisionResult.of(results));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", CONCURRENT_UPDATE));
+        } catch (Exception e) {
+            logger.error("Batch rejection failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/pending")
-    public ResponseEntity<List<LeaveRequest>> getPendingRequests() {
-        List<LeaveRequest> pending = leaveService.getPendingLeaveRequests();
+    public ResponseEntity<List<LeaveRequestView>> getPendingRequests() {
+        List<LeaveRequestView> pending = leaveService.getPendingLeaveRequests();
         return ResponseEntity.ok(pending);
     }
     
     @GetMapping("/team/{reportingOfficer}")
-    public ResponseEntity<List<LeaveRequest>> getTeamLeaveRequests(@PathVariable String reportingOfficer) {
-        List<LeaveRequest> teamRequests = leaveService.getTeamLeaveRequests(reportingOfficer);
+    public ResponseEntity<List<LeaveRequestView>> getTeamLeaveRequests(@PathVariable String reportingOfficer) {
+        List<LeaveRequestView> teamRequests = leaveService.getTeamLeaveRequests(reportingOfficer);
         return ResponseEntity.ok(teamRequests);
     }
     
+    // Dashboard counters for a reporting officer's team - a single-row lookup, maintained on every status change
+    @GetMapping("/team/{reportingOfficer}/summary")
+    public ResponseEntity<TeamLeaveSummary> getTeamLeaveSummary(
+            @PathVariable String reportingOfficer,
+            @RequestParam(required = false) Integer year) {
+        int summaryYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(leaveService.getTeamLeaveSummary(reportingOfficer, summaryYear));
+    }
+
+    // Recompute all team summaries of a year from the leave history (admin only)
+    @PostMapping("/admin/team-summary/rebuild/{year}")
+    public ResponseEntity<?> rebuildTeamLeaveSummaries(@PathVariable int year) {
+        try {
+            int officers = leaveService.rebuildTeamLeaveSummaries(year);
+            return ResponseEntity.ok(Map.of("year", year, "reportingOfficers", officers));
+        } catch (Exception e) {
+            logger.error("Failed to rebuild team leave summaries for year: {}", year, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to rebuild team leave summaries: " + e.getMessage()));
+        }
+    }
+    
+    // Approved leaves overlapping the window (including ones that started before it)
     @GetMapping("/calendar")
-    public ResponseEntity<List<LeaveRequest>> getCalendarLeaves(
+    public ResponseEntity<List<LeaveRequestView>> getCalendarLeaves(
             @RequestParam LocalDate startDate,
-            @RequestParam LocalDate endDate) {
-        List<LeaveRequest> leaves = leaveService.getCalendarLeaves(startDate, endDate);
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String department) {
+        List<LeaveRequestView> leaves = leaveService.getCalendarLeaves(startDate, endDate, department);
         return ResponseEntity.ok(leaves);
     }
     
+    // Number of people on approved leave for each day of the window
+    @GetMapping("/calendar/headcount")
+    public ResponseEntity<?> getCalendarHeadcount(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String department) {
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_HEADCOUNT_DAYS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "The headcount window is limited to " + MAX_HEADCOUNT_DAYS + " days"));
+        }
+        return ResponseEntity.ok(leaveService.getCalendarHeadcount(startDate, endDate, department));
+    }
+    
+    // Leave requests overlapping the window as CSV (optionally gzip), streamed from the database row by row
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportLeaveRequestsCsv(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) LeaveStatus status,
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (endDate.isBefore(startDate)) {
+            return CsvDownload.badRequest("endDate must not be before startDate");
+        }
+        return CsvDownload.respond(csvExportService, exportRetryAfter, "leave-requests-" + startDate + "-to-" + endDate,
+                gzip, out -> csvExportService.exportLeaveRequests(startDate, endDate, status, department, out));
+    }
+    
     @GetMapping("/holidays/{year}")
-    public ResponseEntity<List<CompanyHoliday>> getHolidays(@PathVariable Integer year) {
-        List<CompanyHoliday> holidays = leaveService.getHolidays(year);
-        return ResponseEntity.ok(holidays);
+    public ResponseEntity<List<CompanyHoliday>> getHolidays(@PathVariable Integer year, HttpServletRequest request) {
+        return ConditionalGet.respond(request, leaveService.getHolidaysVersion(year),
+                () -> leaveService.getHolidays(year));
     }
     
     // Add a debug endpoint to check if employee exists
@@ -0,0 +1,28 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.service.RequestRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+// 429 for a request refused by RequestRateLimiter, telling the client when a token will be available
+final class RateLimited {
+
+    private RateLimited() {
+    }
+
+    static ResponseEntity<Object> respond(Duration wait, Object body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RequestRateLimiter.retryAfterSeconds(wait)))
+                .body(body);
+    }
+
+    // Rate-limit subject for the caller. Behind a proxy this is the proxy's address unless
+    // server.forward-headers-strategy lets Tomcat take it from X-Forwarded-For.
+    static String clientOf(HttpServletRequest request) {
+        return "client:" + request.getRemoteAddr();
+    }
+}
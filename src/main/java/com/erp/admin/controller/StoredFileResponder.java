@@ -0,0 +1,80 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Builds responses for files in the upload store: conditional GET (ETag / Last-Modified -> 304),
+// Range requests (206 served by Spring from a FileSystemResource region), and Tomcat sendfile
+// for plain full-file GETs so the kernel copies the bytes without passing them through the heap.
+@Component
+class StoredFileResponder {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    // Below this size a regular buffered write is cheaper than handing the file to the poller
+    @Value("${file.download.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    ResponseEntity<?> respond(Path file, HttpServletRequest request, CacheControl cacheControl) throws IOException {
+        String etag = fileStorageService.etagOf(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        long length = Files.size(file);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .contentType(contentType)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (canSendfile(request, length)) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.contentLength(length).build();
+        }
+
+        // Spring answers a Range header on a Resource body with 206 and only the requested regions
+        return response.body(new FileSystemResource(file));
+    }
+
+    private boolean canSendfile(HttpServletRequest request, long length) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && length >= sendfileMinSize.toBytes();
+    }
+}
@@ -1,23 +1,51 @@
 package com.erp.admin.controller;
 
+import com.erp.admin.dto.EmployeeSearchHit;
+import com.erp.admin.dto.ProfileImportResult;
+import com.erp.admin.dto.UserDocumentPaths;
+import com.erp.admin.dto.UserProfilePage;
+import com.erp.admin.dto.UserProfileSummary;
 import com.erp.admin.model.UserProfile;
 import com.erp.admin.repository.UserProfileRepository;
+import com.erp.admin.service.CsvExportService;
+import com.erp.admin.service.EmployeeSearchIndex;
+import com.erp.admin.service.IdempotencyService;
+import com.erp.admin.service.LeaveCalendarIndex;
 import com.erp.admin.service.FileStorageService;
+import com.erp.admin.service.LeaveService;
+import com.erp.admin.service.RequestFingerprint;
+import com.erp.admin.service.RequestRateLimiter;
+import com.erp.admin.service.UploadTooLargeException;
+import com.erp.admin.service.UserProfileImportService;
+import com.erp.admin.service.UserProfilePatchService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 // import java.math.BigDecimal; // No longer directly used here
-// import java.time.LocalDate; // No longer directly used here
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -26,12 +54,53 @@ public class UserProfileController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserProfileController.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int DEFAULT_SEARCH_RESULTS = 20;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final Set<String> DOCUMENT_TYPES = Set.of("pan", "adhaar", "aadhaar", "passbook");
+
     @Autowired
     private UserProfileRepository repository;
 
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private StoredFileResponder storedFileResponder;
+
+    @Autowired
+    private UserProfileImportService userProfileImportService;
+
+    @Autowired
+    private UserProfilePatchService userProfilePatchService;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Value("${export.retry-after:30s}")
+    private Duration exportRetryAfter;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RequestRateLimiter requestRateLimiter;
+
+    @Value("${file.photo.cache-max-age:5m}")
+    private Duration photoCacheMaxAge;
+
     private final ObjectMapper objectMapper;
 
     public UserProfileController(ObjectMapper objectMapper) {
@@ -39,16 +108,34 @@ public class UserProfileController {
         this.objectMapper.registerModule(new JavaTimeModule()); // For LocalDate deserialization
     }
 
-    // POST API - Create Employee with file uploads
+    // POST API - Create Employee with file uploads. A retry carrying the same Idempotency-Key gets the
+    // first response back; the documents are not stored again.
     @PostMapping(value = "/save", consumes = "multipart/form-data")
     public ResponseEntity<?> createUserProfile(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestPart("userProfile") String userProfileJson,
             @RequestPart(value = "panFile", required = false) MultipartFile panFile,
             @RequestPart(value = "adhaarFile", required = false) MultipartFile adhaarFile,
             @RequestPart(value = "passbookFile", required = false) MultipartFile passbookFile,
-            @RequestPart(value = "photo", required = false) MultipartFile photo) {
+            @RequestPart(value = "photo", required = false) MultipartFile photo,
+            HttpServletRequest request) {
+        String client = RateLimited.clientOf(request);
+        RequestFingerprint fingerprint = RequestFingerprint.of(request)
+                .text(userProfileJson).file(panFile).file(adhaarFile).file(passbookFile).file(photo);
+        return idempotencyService.execute("user-profile-create", idempotencyKey, fingerprint,
+                () -> doCreateUserProfile(userProfileJson, panFile, adhaarFile, passbookFile, photo, client));
+    }
 
+    private ResponseEntity<?> doCreateUserProfile(String userProfileJson, MultipartFile panFile, MultipartFile adhaarFile,
+                                                  MultipartFile passbookFile, MultipartFile photo, String client) {
         try {
+            // Per-caller token bucket (each create names a new employee, so the serial number is no key),
+            // checked before the JSON is parsed, the existence query runs and the documents are written
+            Duration wait = requestRateLimiter.tryAcquire(RequestRateLimiter.USER_PROFILE_CREATE, client);
+            if (!wait.isZero()) {
+                return RateLimited.respond(wait, "Too many profile creations, please retry later");
+            }
+
             UserProfile userProfile = objectMapper.readValue(userProfileJson, UserProfile.class);
             logger.info("Creating user profile for employee: {}", userProfile.getEmployeeSerialNumber());
 
@@ -69,37 +156,36 @@ public class UserProfileController {
             }
 
 
-            // Handle file uploads
-            if (panFile != null && !panFile.isEmpty()) {
-                String panFilePath = fileStorageService.storeFile(panFile, "pan_" + userProfile.getEmployeeSerialNumber());
-                userProfile.setPanFilePath(panFilePath);
-                logger.info("PAN file uploaded: {}", panFilePath);
-            }
-
-            if (adhaarFile != null && !adhaarFile.isEmpty()) {
-                String adhaarFilePath = fileStorageService.storeFile(adhaarFile, "adhaar_" + userProfile.getEmployeeSerialNumber());
-                userProfile.setAdhaarFilePath(adhaarFilePath);
-                logger.info("Aadhaar file uploaded: {}", adhaarFilePath);
-            }
+            // Handle file uploads - all parts are streamed to disk concurrently, capped per file and per request
+            String serial = userProfile.getEmployeeSerialNumber();
+            Map<String, MultipartFile> uploads = new LinkedHashMap<>();
+            uploads.put("pan_" + serial, panFile);
+            uploads.put("adhaar_" + serial, adhaarFile);
+            uploads.put("passbook_" + serial, passbookFile);
+            uploads.put("photo_" + serial, photo);
+            Map<String, String> storedPaths = fileStorageService.storeFiles(uploads);
 
-            if (passbookFile != null && !passbookFile.isEmpty()) {
-                String passbookFilePath = fileStorageService.storeFile(passbookFile, "passbook_" + userProfile.getEmployeeSerialNumber());
-                userProfile.setPassbookFilePath(passbookFilePath);
-                logger.info("Passbook file uploaded: {}", passbookFilePath);
-            }
-
-            // Handle photo upload
-            if (photo != null && !photo.isEmpty()) {
-                userProfile.setPhoto(photo.getBytes());
-                logger.info("Photo uploaded successfully for {}, size: {} bytes", userProfile.getEmployeeSerialNumber(), photo.getSize());
-            }
+            userProfile.setPanFilePath(storedPaths.get("pan_" + serial));
+            userProfile.setAdhaarFilePath(storedPaths.get("adhaar_" + serial));
+            userProfile.setPassbookFilePath(storedPaths.get("passbook_" + serial));
+            // Photo is stored next to the documents, the profile keeps only the path
+            userProfile.setPhotoFilePath(storedPaths.get("photo_" + serial));
+            storedPaths.forEach((fileType, path) -> logger.info("Stored {} upload: {}", fileType, path));
 
             UserProfile savedProfile = repository.save(userProfile);
+            employeeSearchIndex.onSaved(savedProfile);
             logger.info("User profile created successfully with Sr. No: {}", savedProfile.getSrNo());
+
+            // New joiners get this year's leave balance right away instead of on first read
+            leaveService.provisionLeaveBalance(savedProfile.getEmployeeSerialNumber(), LocalDate.now().getYear());
             
             // Return the saved profile, which includes the generated srNo and any other backend-set fields
             return ResponseEntity.status(HttpStatus.CREATED).body(savedProfile);
 
+        } catch (UploadTooLargeException e) {
+            logger.warn("Rejected oversized upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("Upload too large: " + e.getMessage());
         } catch (IOException e) {
             logger.error("Error processing/uploading files or deserializing JSON for employee", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -111,6 +197,26 @@ public class UserProfileController {
         }
     }
 
+    // POST API - Bulk import employees from a CSV file (header names as in the JSON, e.g. employeeSerialNumber).
+    // Valid rows are inserted, the rest come back with their row number and reason.
+    @PostMapping(value = "/import", consumes = "multipart/form-data")
+    public ResponseEntity<?> importUserProfiles(@RequestPart("file") MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body("CSV file is required");
+        }
+        try (InputStream csv = file.getInputStream()) {
+            ProfileImportResult result = userProfileImportService.importCsv(csv);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected user profile import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Invalid CSV: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing user profiles", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error importing user profiles: " + e.getMessage());
+        }
+    }
+
     // PUT API - Update Employee
     @PutMapping("/update/{id}")
     public ResponseEntity<?> updateUserProfile(@PathVariable Long id, @RequestBody UserProfile updatedProfileData) {
@@ -146,11 +252,14 @@ public class UserProfileController {
             existingProfile.setAdhaar(updatedProfileData.getAdhaar());
             existingProfile.setPersonalFileNumber(updatedProfileData.getPersonalFileNumber());
             existingProfile.setStatus(updatedProfileData.getStatus());
-            // Note: File fields (panFilePath, adhaarFilePath, passbookFilePath, photo) are not updated here.
+            // Note: File fields (panFilePath, adhaarFilePath, passbookFilePath, photoFilePath) are not updated here.
             // If file updates are needed, this endpoint would need to accept multipart/form-data
             // and handle file saving similar to the /save endpoint.
 
             UserProfile savedProfile = repository.save(existingProfile);
+            employeeSearchIndex.onSaved(savedProfile);
+            leaveCalendarIndex.onProfileChanged(savedProfile.getEmployeeSerialNumber(),
+                    savedProfile.getEmployeeName(), savedProfile.getDepartment());
             logger.info("User profile updated successfully for Sr. No: {}", id);
             return ResponseEntity.ok(savedProfile);
 
@@ -161,8 +270,28 @@ public class UserProfileController {
         }
     }
 
+    // PATCH API - JSON Merge Patch: only the supplied fields are written (null clears one), and only the
+    // columns whose value actually changes; answers with the summary row, so no TEXT column is read back
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchUserProfile(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            Optional<UserProfileSummary> patched = userProfilePatchService.patch(id, patch);
+            if (patched.isEmpty()) {
+                logger.warn("User profile not found for patch with Sr. No: {}", id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("User profile not found with Sr. No: " + id);
+            }
+            return ResponseEntity.ok(patched.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error patching user profile for Sr. No: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error patching user profile: " + e.getMessage());
+        }
+    }
 
-    // GET API - Get all employees
+    // GET API - Get all employees (full rows; prefer /page or /export for listings)
     @GetMapping("/all")
     public ResponseEntity<List<UserProfile>> getAllUserProfiles() {
         try {
@@ -175,6 +304,94 @@ public class UserProfileController {
         }
     }
     
+    // GET API - Keyset-paginated employee summaries (no photo / TEXT columns)
+    // Pass the returned nextCursor as "after" to fetch the following page
+    @GetMapping("/page")
+    public ResponseEntity<?> getUserProfilePage(
+            @RequestParam(defaultValue = "srNo") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        try {
+            if (!isSupportedSort(sort)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Unsupported sort: " + sort + " (use srNo or employeeSerialNumber)"));
+            }
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            List<UserProfileSummary> items = fetchSummaries(sort, after, pageSize);
+            String nextCursor = items.size() < pageSize ? null : cursorOf(sort, items.get(items.size() - 1));
+            return ResponseEntity.ok(new UserProfilePage(items, sort, nextCursor));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor: " + after));
+        } catch (Exception e) {
+            logger.error("Error retrieving user profile page", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error retrieving user profiles: " + e.getMessage()));
+        }
+    }
+
+    // GET API - Typeahead search over name, serial number, department, designation and reporting officer.
+    // Every word of q is matched as a prefix; served from the in-memory EmployeeSearchIndex.
+    @GetMapping("/search")
+    public ResponseEntity<List<EmployeeSearchHit>> searchUserProfiles(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_RESULTS) int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(employeeSearchIndex.search(q, size));
+    }
+
+    // GET API - Full export of employee summaries as NDJSON, streamed page by page. No produces restriction:
+    // the 400 for a bad sort is JSON, and its content type is set explicitly so an NDJSON Accept still gets it.
+    @GetMapping("/export")
+    public ResponseEntity<?> exportUserProfiles(@RequestParam(defaultValue = "srNo") String sort) {
+        if (!isSupportedSort(sort)) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "Unsupported sort: " + sort + " (use srNo or employeeSerialNumber)"));
+        }
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            int exported = 0;
+            List<UserProfileSummary> chunk;
+            do {
+                chunk = fetchSummaries(sort, cursor, EXPORT_CHUNK_SIZE);
+                for (UserProfileSummary summary : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(summary));
+                    out.write('\n');
+                }
+                out.flush();
+                exported += chunk.size();
+                if (!chunk.isEmpty()) {
+                    cursor = cursorOf(sort, chunk.get(chunk.size() - 1));
+                }
+            } while (chunk.size() == EXPORT_CHUNK_SIZE);
+            logger.info("Exported {} user profile summaries", exported);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // GET API - HR extract of all employees as CSV (optionally gzip), streamed from the database row by row
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportUserProfilesCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        return CsvDownload.respond(csvExportService, exportRetryAfter, "employees-" + LocalDate.now(), gzip,
+                csvExportService::exportUserProfiles);
+    }
+
+    private boolean isSupportedSort(String sort) {
+        return "srNo".equals(sort) || "employeeSerialNumber".equals(sort);
+    }
+
+    private List<UserProfileSummary> fetchSummaries(String sort, String after, int size) {
+        if ("employeeSerialNumber".equals(sort)) {
+            return repository.findSummariesAfterEmployeeSerialNumber(after == null ? "" : after, Limit.of(size));
+        }
+        long afterSrNo = after == null || after.isBlank() ? 0L : Long.parseLong(after);
+        return repository.findSummariesAfterSrNo(afterSrNo, Limit.of(size));
+    }
+
+    private String cursorOf(String sort, UserProfileSummary last) {
+        return "employeeSerialNumber".equals(sort) ? last.getEmployeeSerialNumber() : String.valueOf(last.getSrNo());
+    }
+
     // GET API - Get employee by Sr. No. (ID)
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserProfileById(@PathVariable Long id) {
@@ -195,6 +412,59 @@ public class UserProfileController {
         }
     }
 
+    // GET API - Employee photo, revalidated with If-None-Match so unchanged images come back as 304
+    @GetMapping("/{id}/photo")
+    public ResponseEntity<?> getUserPhoto(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            Optional<String> photoFilePath = repository.findPhotoFilePathBySrNo(id);
+            Path photo = photoFilePath.isPresent() ? fileStorageService.resolveStoredFile(photoFilePath.get()) : null;
+            if (photo == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("No photo found for Sr. No: " + id);
+            }
+            return storedFileResponder.respond(photo, request, CacheControl.maxAge(photoCacheMaxAge).cachePrivate());
+        } catch (Exception e) {
+            logger.error("Error retrieving photo for Sr. No: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving photo: " + e.getMessage());
+        }
+    }
+
+    // GET API - Stored document scan (pan, adhaar, passbook); supports Range and conditional requests
+    @GetMapping("/{id}/documents/{type}")
+    public ResponseEntity<?> getUserDocument(@PathVariable Long id, @PathVariable String type, HttpServletRequest request) {
+        String documentType = type.toLowerCase();
+        if (!DOCUMENT_TYPES.contains(documentType)) {
+            return ResponseEntity.badRequest()
+                    .body("Unknown document type: " + type + " (use pan, adhaar or passbook)");
+        }
+        try {
+            Optional<UserDocumentPaths> paths = repository.findDocumentPathsBySrNo(id);
+            if (paths.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("User profile not found with Sr. No: " + id);
+            }
+
+            String storedPath = switch (documentType) {
+                case "pan" -> paths.get().getPanFilePath();
+                case "passbook" -> paths.get().getPassbookFilePath();
+                default -> paths.get().getAdhaarFilePath();
+            };
+
+            Path document = fileStorageService.resolveStoredFile(storedPath);
+            if (document == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("No " + type + " document found for Sr. No: " + id);
+            }
+            // Personal documents: browsers may keep a copy but must revalidate, shared caches must not store
+            return storedFileResponder.respond(document, request, CacheControl.noCache().cachePrivate());
+        } catch (Exception e) {
+            logger.error("Error retrieving {} document for Sr. No: {}", type, id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving document: " + e.getMessage());
+        }
+    }
+
     // PATCH API - Update status to 'Y' by Employee Serial Number
     @PatchMapping("/update-by-status/{employeeSerialNumber}")
     public ResponseEntity<?> activateUserStatusByEmployeeSerialNumber(
@@ -215,6 +485,7 @@ public class UserProfileController {
             if (currentStatus == 'N' || currentStatus == 'n') {
                 userProfile.setStatus('Y');
                 UserProfile savedProfile = repository.save(userProfile);
+                employeeSearchIndex.onSaved(savedProfile);
                 logger.info("Status activated successfully for employee serial number: {} to Y", employeeSerialNumber);
                 return ResponseEntity.ok(savedProfile);
             } else {
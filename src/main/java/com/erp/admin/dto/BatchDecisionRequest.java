@@ -0,0 +1,7 @@
+package com.erp.admin.dto;
+
+import java.util.List;
+
+// Body of PUT /api/leave/approve-batch and /reject-batch
+public record BatchDecisionRequest(List<Long> requestIds, String approvedBy, String rejectionReason) {
+}
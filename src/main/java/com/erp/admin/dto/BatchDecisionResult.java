@@ -0,0 +1,11 @@
+package com.erp.admin.dto;
+
+import java.util.List;
+
+public record BatchDecisionResult(int succeeded, int failed, List<BatchItemResult> results) {
+
+    public static BatchDecisionResult of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::success).count();
+        return new BatchDecisionResult(succeeded, results.size() - succeeded, results);
+    }
+}
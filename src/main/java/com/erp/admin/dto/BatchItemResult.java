@@ -0,0 +1,15 @@
+package com.erp.admin.dto;
+
+import com.erp.admin.model.LeaveStatus;
+
+// Outcome of one request id in a batch decision; error is null on success
+public record BatchItemResult(Long requestId, boolean success, LeaveStatus status, String error) {
+
+    public static BatchItemResult succeeded(Long requestId, LeaveStatus status) {
+        return new BatchItemResult(requestId, true, status, null);
+    }
+
+    public static BatchItemResult failed(Long requestId, LeaveStatus status, String error) {
+        return new BatchItemResult(requestId, false, status, error);
+    }
+}
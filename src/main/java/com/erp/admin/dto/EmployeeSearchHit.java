@@ -0,0 +1,23 @@
+package com.erp.admin.dto;
+
+import com.erp.admin.model.UserProfile;
+
+import java.time.LocalDate;
+
+// Summary row kept in the employee search index; same fields as UserProfileSummary
+public record EmployeeSearchHit(Long srNo, String employeeSerialNumber, String employeeName, String designation,
+                                String department, String reportingOfficer, String emailAddress,
+                                LocalDate dateOfJoining, Character status) {
+
+    public static EmployeeSearchHit of(UserProfile profile) {
+        return new EmployeeSearchHit(profile.getSrNo(), profile.getEmployeeSerialNumber(), profile.getEmployeeName(),
+                profile.getDesignation(), profile.getDepartment(), profile.getReportingOfficer(),
+                profile.getEmailAddress(), profile.getDateOfJoining(), profile.getStatus());
+    }
+
+    public static EmployeeSearchHit of(UserProfileSummary summary) {
+        return new EmployeeSearchHit(summary.getSrNo(), summary.getEmployeeSerialNumber(), summary.getEmployeeName(),
+                summary.getDesignation(), summary.getDepartment(), summary.getReportingOfficer(),
+                summary.getEmailAddress(), summary.getDateOfJoining(), summary.getStatus());
+    }
+}
@@ -0,0 +1,5 @@
+package com.erp.admin.dto;
+
+// A response recorded under an Idempotency-Key, kept as the bytes that were sent so a replay is identical
+public record IdempotentResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,5 @@
+package com.erp.admin.dto;
+
+// One rejected CSV row; row is the 1-based data row (the header is not counted)
+public record ImportRowError(long row, String employeeSerialNumber, String error) {
+}
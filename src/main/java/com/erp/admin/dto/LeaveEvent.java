@@ -0,0 +1,18 @@
+package com.erp.admin.dto;
+
+import com.erp.admin.model.LeaveEventType;
+
+import java.time.LocalDateTime;
+
+// A leave lifecycle event as delivered from the outbox. The leave is the request as it stood when the
+// event was recorded (for LEAVE_DELETED, just before the delete); eventId grows with recording order.
+public record LeaveEvent(
+        Long eventId,
+        LeaveEventType type,
+        LocalDateTime occurredAt,
+        LeaveRequestView leave) {
+
+    public LeaveEvent withEventId(Long eventId) {
+        return new LeaveEvent(eventId, type, occurredAt, leave);
+    }
+}
@@ -0,0 +1,43 @@
+package com.erp.admin.dto;
+
+import com.erp.admin.model.LeaveRequest;
+import com.erp.admin.model.LeaveStatus;
+import com.erp.admin.model.LeaveType;
+import com.erp.admin.model.UserProfile;
+
+import java.time.LocalDate;
+
+// Read model for leave list endpoints - employee name and department flattened in, no entity graph
+public record LeaveRequestView(
+        Long requestId,
+        String employeeSerialNumber,
+        String employeeName,
+        String department,
+        LeaveType leaveType,
+        LocalDate startDate,
+        LocalDate endDate,
+        Integer totalDays,
+        String reason,
+        LeaveStatus status,
+        LocalDate appliedDate,
+        LocalDate approvedDate,
+        String approvedBy,
+        String rejectionReason,
+        String emergencyContactDuringLeave) {
+
+    public static LeaveRequestView of(LeaveRequest leaveRequest) {
+        UserProfile user = leaveRequest.getUserProfile();
+        return new LeaveRequestView(leaveRequest.getRequestId(), user.getEmployeeSerialNumber(), user.getEmployeeName(),
+                user.getDepartment(), leaveRequest.getLeaveType(), leaveRequest.getStartDate(), leaveRequest.getEndDate(),
+                leaveRequest.getTotalDays(), leaveRequest.getReason(), leaveRequest.getStatus(), leaveRequest.getAppliedDate(),
+                leaveRequest.getApprovedDate(), leaveRequest.getApprovedBy(), leaveRequest.getRejectionReason(),
+                leaveRequest.getEmergencyContactDuringLeave());
+    }
+
+    // The same leave with the employee's current name and department
+    public LeaveRequestView withEmployee(String employeeName, String department) {
+        return new LeaveRequestView(requestId, employeeSerialNumber, employeeName, department, leaveType, startDate,
+                endDate, totalDays, reason, status, appliedDate, approvedDate, approvedBy, rejectionReason,
+                emergencyContactDuringLeave);
+    }
+}
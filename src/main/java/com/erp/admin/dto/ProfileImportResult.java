@@ -0,0 +1,10 @@
+package com.erp.admin.dto;
+
+import java.util.List;
+
+public record ProfileImportResult(long rows, int imported, int failed, List<ImportRowError> errors) {
+
+    public static ProfileImportResult of(long rows, int imported, List<ImportRowError> errors) {
+        return new ProfileImportResult(rows, imported, errors.size(), errors);
+    }
+}
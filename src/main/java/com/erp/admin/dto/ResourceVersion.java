@@ -0,0 +1,37 @@
+package com.erp.admin.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+// Fingerprint of a set of rows for conditional GETs, read with one aggregate query instead of loading them:
+// row count (catches deletes) and the newest last_modified (catches inserts and updates).
+// salt folds in data from other tables that the response also shows.
+public record ResourceVersion(long count, LocalDateTime lastModified, int salt) {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Target of the JPQL constructor expressions: SELECT new ...ResourceVersion(COUNT(x), MAX(x.lastModified))
+    public ResourceVersion(Long count, LocalDateTime lastModified) {
+        this(count == null ? 0 : count, lastModified, 0);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public ResourceVersion salted(Object... values) {
+        return new ResourceVersion(count, lastModified, Objects.hash(values));
+    }
+
+    public String etag() {
+        long micros = lastModified == null ? 0 : ChronoUnit.MICROS.between(EPOCH, lastModified);
+        return Long.toHexString(count) + "-" + Long.toHexString(micros) + "-" + Integer.toHexString(salt);
+    }
+
+    // -1 when there are no rows
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,13 @@
+package com.erp.admin.dto;
+
+// Stored file references of one employee, loaded without the rest of the profile row
+public interface UserDocumentPaths {
+
+    String getPanFilePath();
+
+    String getAdhaarFilePath();
+
+    String getPassbookFilePath();
+
+    String getPhotoFilePath();
+}
@@ -0,0 +1,7 @@
+package com.erp.admin.dto;
+
+import java.util.List;
+
+// One keyset page of employee summaries; nextCursor is null on the last page
+public record UserProfilePage(List<UserProfileSummary> items, String sort, String nextCursor) {
+}
@@ -0,0 +1,25 @@
+package com.erp.admin.dto;
+
+import java.time.LocalDate;
+
+// Lightweight employee view used by listings - no photo, no TEXT/LOB columns
+public interface UserProfileSummary {
+
+    Long getSrNo();
+
+    String getEmployeeSerialNumber();
+
+    String getEmployeeName();
+
+    String getDesignation();
+
+    String getDepartment();
+
+    String getReportingOfficer();
+
+    String getEmailAddress();
+
+    LocalDate getDateOfJoining();
+
+    Character getStatus();
+}
@@ -1,14 +1,19 @@
 package com.erp.admin.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @Setter
 @Table(name = "company_holidays")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companyHoliday")
 public class CompanyHoliday {
     
     @Id
@@ -36,4 +41,10 @@ public class CompanyHoliday {
     
     @Column(name = "status", length = 1, nullable = false)
     private char status = 'A'; // A=Active, I=Inactive
+
+    // Maintained by the database (ON UPDATE), read only through the ResourceVersion queries.
+    // Never written by Hibernate and not exposed, since the loaded value can lag behind the row.
+    @JsonIgnore
+    @Column(name = "last_modified", insertable = false, updatable = false)
+    private LocalDateTime lastModified;
 }
@@ -1,14 +1,21 @@
 package com.erp.admin.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @Setter
-@Table(name = "leave_balance")
+@Table(name = "leave_balance",
+       uniqueConstraints = @UniqueConstraint(name = "uk_leave_balance_employee_year",
+                                             columnNames = {"employee_serial_number", "year"}))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "leaveBalance")
 public class LeaveBalance {
     
     @Id
@@ -40,6 +47,18 @@ public class LeaveBalance {
     
     @Column(name = "updated_date")
     private LocalDate updatedDate = LocalDate.now();
+
+    // Optimistic lock; also bumped by the bulk deduct/restore updates in LeaveBalanceRepository
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Maintained by the database (ON UPDATE), read only through the ResourceVersion queries.
+    // Never written by Hibernate and not exposed, since the loaded value can lag behind the row.
+    @JsonIgnore
+    @Column(name = "last_modified", insertable = false, updatable = false)
+    private LocalDateTime lastModified;
     
     @PreUpdate
     protected void onUpdate() {
@@ -0,0 +1,8 @@
+package com.erp.admin.model;
+
+public enum LeaveEventType {
+    LEAVE_APPLIED,
+    LEAVE_APPROVED,
+    LEAVE_REJECTED,
+    LEAVE_DELETED
+}
@@ -3,11 +3,13 @@ package com.erp.admin.model;
 import com.erp.admin.model.LeaveStatus;
 import com.erp.admin.model.LeaveType;
 import com.erp.admin.model.UserProfile;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 
 
@@ -60,6 +62,19 @@ public class LeaveRequest {
     
     @Column(name = "emergency_contact_during_leave")
     private String emergencyContactDuringLeave;
+
+    // Optimistic lock: a decision or delete based on a stale read fails at flush instead of
+    // overwriting the other one, and LeaveService retries it against the current row
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Maintained by the database (ON UPDATE), read only through the ResourceVersion queries.
+    // Never written by Hibernate and not exposed, since the loaded value can lag behind the row.
+    @JsonIgnore
+    @Column(name = "last_modified", insertable = false, updatable = false)
+    private LocalDateTime lastModified;
     
     @PrePersist
     protected void onCreate() {
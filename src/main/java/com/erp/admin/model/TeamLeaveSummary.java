@@ -0,0 +1,48 @@
+package com.erp.admin.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// Per reporting officer and year aggregate, updated in place by LeaveService on every status change
+@Entity
+@Getter
+@Setter
+@Table(name = "team_leave_summary",
+       uniqueConstraints = @UniqueConstraint(name = "uk_team_leave_summary_officer_year",
+                                             columnNames = {"reporting_officer", "year"}))
+public class TeamLeaveSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "summary_id")
+    private Long summaryId;
+
+    @Column(name = "reporting_officer", nullable = false)
+    private String reportingOfficer;
+
+    @Column(name = "year", nullable = false)
+    private Integer year;
+
+    @Column(name = "pending_count", nullable = false)
+    private Integer pendingCount = 0;
+
+    @Column(name = "approved_count", nullable = false)
+    private Integer approvedCount = 0;
+
+    @Column(name = "rejected_count", nullable = false)
+    private Integer rejectedCount = 0;
+
+    // Days used by approved leaves, per leave type
+    @Column(name = "casual_days_used", nullable = false)
+    private Integer casualDaysUsed = 0;
+
+    @Column(name = "sick_days_used", nullable = false)
+    private Integer sickDaysUsed = 0;
+
+    @Column(name = "leave_with_pay_days_used", nullable = false)
+    private Integer leaveWithPayDaysUsed = 0;
+
+    @Column(name = "leave_without_pay_days_used", nullable = false)
+    private Integer leaveWithoutPayDaysUsed = 0;
+}
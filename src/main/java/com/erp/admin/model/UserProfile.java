@@ -3,6 +3,11 @@ package com.erp.admin.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -11,6 +16,10 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @Table(name = "user_profile")
+// UPDATEs list only the dirty columns, so a status change or a small edit does not rewrite the TEXT columns
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "userProfile")
+@NaturalIdCache(region = "userProfileNaturalId")
 public class UserProfile {
     
     @Id
@@ -18,6 +27,7 @@ public class UserProfile {
     @Column(name = "sr_no")
     private Long srNo; // Sr. No. (Auto-generated)
 
+    @NaturalId
     @Column(name = "employee_serial_number", unique = true, nullable = false)
     private String employeeSerialNumber;
 
@@ -84,10 +94,9 @@ public class UserProfile {
     @Column(name = "passbook_file_path")
     private String passbookFilePath;
 
-    // Photo field
-    @Lob
-    @Column(name = "photo", columnDefinition = "MEDIUMBLOB")
-    private byte[] photo;
+    // Photo is kept in the file store like the documents; served by GET /api/user-profiles/{id}/photo
+    @Column(name = "photo_file_path")
+    private String photoFilePath;
 
     @Column(name = "status", length = 1, nullable = false)
     private char status = 'N'; // Default status is 'N'
@@ -3,10 +3,14 @@ package com.erp.admin.repository;
 
 import java.time.LocalDate;
 import java.util.*;
+import com.erp.admin.dto.ResourceVersion;
 import com.erp.admin.model.CompanyHoliday;
 
 import com.erp.admin.model.UserProfile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,15 +20,24 @@ import java.util.Optional;
 @Repository
 public interface CompanyHolidayRepository extends JpaRepository<CompanyHoliday, Long> {
     
+    // Holiday reads go through the query cache; any write to company_holidays invalidates them
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CompanyHoliday> findByYearAndStatusOrderByHolidayDate(Integer year, char status);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CompanyHoliday> findByHolidayDateBetweenAndStatus(LocalDate startDate, LocalDate endDate, char status);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT ch FROM CompanyHoliday ch WHERE ch.holidayDate BETWEEN :startDate AND :endDate " +
            "AND ch.status = 'A' ORDER BY ch.holidayDate")
     List<CompanyHoliday> findHolidaysInRange(@Param("startDate") LocalDate startDate, 
                                            @Param("endDate") LocalDate endDate);
     
     boolean existsByHolidayDateAndStatus(LocalDate holidayDate, char status);
+    
+    // Conditional GETs; counts inactive rows too so deactivating a holiday changes the version
+    @Query("SELECT new com.erp.admin.dto.ResourceVersion(COUNT(ch), MAX(ch.lastModified)) FROM CompanyHoliday ch " +
+           "WHERE ch.year = :year")
+    ResourceVersion findYearVersion(@Param("year") Integer year);
 }
 
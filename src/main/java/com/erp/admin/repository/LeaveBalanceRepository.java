@@ -1,49 +1,197 @@
 package com.erp.admin.repository;
 
+import com.erp.admin.dto.ResourceVersion;
 import com.erp.admin.model.LeaveBalance;
+import com.erp.admin.model.LeaveType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long> {
     
-    Optional<LeaveBalance> findByUserProfile_EmployeeSerialNumberAndYear(String employeeSerialNumber, Integer year);
+    // Filter on the foreign key column itself; the derived forms outer-join user_profile first,
+    // which keeps the (employee_serial_number, year) key from being used. Cached until leave_balance changes.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    Optional<LeaveBalance> findByUserProfile_EmployeeSerialNumberAndYear(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                                                       @Param("year") Integer year);
     
-    List<LeaveBalance> findByUserProfile_EmployeeSerialNumber(String employeeSerialNumber);
+    @Query("SELECT lb FROM LeaveBalance lb WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber")
+    List<LeaveBalance> findByUserProfile_EmployeeSerialNumber(@Param("employeeSerialNumber") String employeeSerialNumber);
     
-    // Add these update methods that your service is trying to call
+    // Conditional GETs; not query-cached so writes made outside Hibernate are still seen
+    @Query("SELECT new com.erp.admin.dto.ResourceVersion(COUNT(lb), MAX(lb.lastModified)) FROM LeaveBalance lb " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    ResourceVersion findBalanceVersion(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                       @Param("year") Integer year);
+    
+    // Batch decisions: every affected employee's balance for the year in one IN-query
+    @Query("SELECT lb FROM LeaveBalance lb JOIN FETCH lb.userProfile u " +
+           "WHERE u.employeeSerialNumber IN :employeeSerialNumbers AND lb.year = :year")
+    List<LeaveBalance> findByEmployeeSerialNumbersAndYear(@Param("employeeSerialNumbers") Collection<String> employeeSerialNumbers,
+                                                          @Param("year") Integer year);
+    
+    // Set-based yearly provisioning: one row per employee that has none for the year yet.
+    // The unique (employee_serial_number, year) key plus INSERT IGNORE makes concurrent runs harmless.
+    // Native writes declare the table they touch, so Hibernate evicts only that cache region instead of all of them.
     @Modifying
     @Transactional
-    @Query("UPDATE LeaveBalance lb SET lb.casualLeaveBalance = :balance WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    @Query(value = "INSERT IGNORE INTO leave_balance (employee_serial_number, year, casual_leave_balance, sick_leave_balance, " +
+                   "leave_with_pay_balance, leave_without_pay_balance, created_date, updated_date) " +
+                   "SELECT u.employee_serial_number, :year, :allowance, :allowance, :allowance, :allowance, CURRENT_DATE, CURRENT_DATE " +
+                   "FROM user_profile u WHERE NOT EXISTS (SELECT 1 FROM leave_balance lb " +
+                   "WHERE lb.employee_serial_number = u.employee_serial_number AND lb.year = :year)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "leave_balance"))
+    int provisionBalancesForYear(@Param("year") Integer year, @Param("allowance") Integer allowance);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO leave_balance (employee_serial_number, year, casual_leave_balance, sick_leave_balance, " +
+                   "leave_with_pay_balance, leave_without_pay_balance, created_date, updated_date) " +
+                   "SELECT u.employee_serial_number, :year, :allowance, :allowance, :allowance, :allowance, CURRENT_DATE, CURRENT_DATE " +
+                   "FROM user_profile u WHERE u.employee_serial_number = :employeeSerialNumber AND NOT EXISTS (" +
+                   "SELECT 1 FROM leave_balance lb WHERE lb.employee_serial_number = u.employee_serial_number AND lb.year = :year)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "leave_balance"))
+    int provisionBalanceForEmployee(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                    @Param("year") Integer year,
+                                    @Param("allowance") Integer allowance);
+    
+    // Add these update methods that your service is trying to call.
+    // Every bulk update here also bumps the @Version column, which JPQL updates do not do on their own,
+    // so an entity loaded before the update can no longer be written back over it.
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.casualLeaveBalance = :balance, lb.version = lb.version + 1 WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
     int updateCasualLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber, 
                                 @Param("year") Integer year, 
                                 @Param("balance") Integer balance);
     
     @Modifying
     @Transactional
-    @Query("UPDATE LeaveBalance lb SET lb.sickLeaveBalance = :balance WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    @Query("UPDATE LeaveBalance lb SET lb.sickLeaveBalance = :balance, lb.version = lb.version + 1 WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
     int updateSickLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber, 
                               @Param("year") Integer year, 
                               @Param("balance") Integer balance);
     
     @Modifying
     @Transactional
-    @Query("UPDATE LeaveBalance lb SET lb.leaveWithPayBalance = :balance WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithPayBalance = :balance, lb.version = lb.version + 1 WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
     int updateLeaveWithPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber, 
                                  @Param("year") Integer year, 
                                  @Param("balance") Integer balance);
     
     @Modifying
     @Transactional
-    @Query("UPDATE LeaveBalance lb SET lb.leaveWithoutPayBalance = :balance WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithoutPayBalance = :balance, lb.version = lb.version + 1 WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
     int updateLeaveWithoutPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber, 
                                     @Param("year") Integer year, 
                                     @Param("balance") Integer balance);
+
+    // Guarded deductions: the balance check and the write are one statement, so concurrent approvals
+    // cannot both pass the check. Returns the affected row count - 0 means insufficient balance (or no row).
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.casualLeaveBalance = lb.casualLeaveBalance - :days, lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year " +
+           "AND lb.casualLeaveBalance >= :days")
+    int deductCasualLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                 @Param("year") Integer year,
+                                 @Param("days") Integer days);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.sickLeaveBalance = lb.sickLeaveBalance - :days, lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year " +
+           "AND lb.sickLeaveBalance >= :days")
+    int deductSickLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                               @Param("year") Integer year,
+                               @Param("days") Integer days);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithPayBalance = lb.leaveWithPayBalance - :days, lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year " +
+           "AND lb.leaveWithPayBalance >= :days")
+    int deductLeaveWithPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                  @Param("year") Integer year,
+                                  @Param("days") Integer days);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithoutPayBalance = lb.leaveWithoutPayBalance - :days, lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year " +
+           "AND lb.leaveWithoutPayBalance >= :days")
+    int deductLeaveWithoutPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                     @Param("year") Integer year,
+                                     @Param("days") Integer days);
+
+    // Restores add the days back in place, capped at the yearly allowance
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.casualLeaveBalance = least(lb.casualLeaveBalance + :days, :cap), lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    int restoreCasualLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                  @Param("year") Integer year,
+                                  @Param("days") Integer days,
+                                  @Param("cap") Integer cap);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.sickLeaveBalance = least(lb.sickLeaveBalance + :days, :cap), lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    int restoreSickLeaveBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                @Param("year") Integer year,
+                                @Param("days") Integer days,
+                                @Param("cap") Integer cap);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithPayBalance = least(lb.leaveWithPayBalance + :days, :cap), lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    int restoreLeaveWithPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                   @Param("year") Integer year,
+                                   @Param("days") Integer days,
+                                   @Param("cap") Integer cap);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE LeaveBalance lb SET lb.leaveWithoutPayBalance = least(lb.leaveWithoutPayBalance + :days, :cap), lb.version = lb.version + 1 " +
+           "WHERE lb.userProfile.employeeSerialNumber = :employeeSerialNumber AND lb.year = :year")
+    int restoreLeaveWithoutPayBalance(@Param("employeeSerialNumber") String employeeSerialNumber,
+                                      @Param("year") Integer year,
+                                      @Param("days") Integer days,
+                                      @Param("cap") Integer cap);
+
+    default int deductBalance(String employeeSerialNumber, Integer year, LeaveType leaveType, int days) {
+        return switch (leaveType) {
+            case CASUAL -> deductCasualLeaveBalance(employeeSerialNumber, year, days);
+            case SICK -> deductSickLeaveBalance(employeeSerialNumber, year, days);
+            case LEAVE_WITH_PAY -> deductLeaveWithPayBalance(employeeSerialNumber, year, days);
+            case LEAVE_WITHOUT_PAY -> deductLeaveWithoutPayBalance(employeeSerialNumber, year, days);
+            default -> 0;
+        };
+    }
+
+    default int restoreBalance(String employeeSerialNumber, Integer year, LeaveType leaveType, int days, int cap) {
+        return switch (leaveType) {
+            case CASUAL -> restoreCasualLeaveBalance(employeeSerialNumber, year, days, cap);
+            case SICK -> restoreSickLeaveBalance(employeeSerialNumber, year, days, cap);
+            case LEAVE_WITH_PAY -> restoreLeaveWithPayBalance(employeeSerialNumber, year, days, cap);
+            case LEAVE_WITHOUT_PAY -> restoreLeaveWithoutPayBalance(employeeSerialNumber, year, days, cap);
+            default -> 0;
+        };
+    }
 }
@@ -1,6 +1,8 @@
 package com.erp.admin.repository;
 
 
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.dto.ResourceVersion;
 import com.erp.admin.model.LeaveStatus;
 import com.erp.admin.model.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,8 +18,17 @@ import java.util.*;
 
 @Repository
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
+
+    // Constructor expression shared by the read-model queries: one joined SELECT, no lazy loads afterwards
+    String VIEW_SELECT = "SELECT new com.erp.admin.dto.LeaveRequestView(lr.requestId, u.employeeSerialNumber, " +
+            "u.employeeName, u.department, lr.leaveType, lr.startDate, lr.endDate, lr.totalDays, lr.reason, " +
+            "lr.status, lr.appliedDate, lr.approvedDate, lr.approvedBy, lr.rejectionReason, " +
+            "lr.emergencyContactDuringLeave) FROM LeaveRequest lr JOIN lr.userProfile u ";
     
-    List<LeaveRequest> findByUserProfile_EmployeeSerialNumberOrderByAppliedDateDesc(String employeeSerialNumber);
+    // Filters on the foreign key column itself; the derived form outer-joins user_profile first
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.userProfile.employeeSerialNumber = :employeeSerialNumber " +
+           "ORDER BY lr.appliedDate DESC")
+    List<LeaveRequest> findByUserProfile_EmployeeSerialNumberOrderByAppliedDateDesc(@Param("employeeSerialNumber") String employeeSerialNumber);
     
     List<LeaveRequest> findByUserProfile_EmployeeSerialNumberAndStatus(String employeeSerialNumber, LeaveStatus status);
     
@@ -38,13 +49,37 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
                                                        @Param("leaveType") LeaveType leaveType,
                                                        @Param("year") Integer year);
     
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.startDate BETWEEN :startDate AND :endDate " +
+    // Every approved leave overlapping [startDate, endDate], including ones that start before the window
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.startDate <= :endDate AND lr.endDate >= :startDate " +
            "AND lr.status = 'APPROVED' ORDER BY lr.startDate")
     List<LeaveRequest> findApprovedLeavesInDateRange(@Param("startDate") LocalDate startDate, 
                                                     @Param("endDate") LocalDate endDate);
     
-    // For managers to see their team's leave requests
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.userProfile.reportingOfficer = :reportingOfficer " +
-           "ORDER BY lr.appliedDate DESC")
-    List<LeaveRequest> findByReportingOfficer(@Param("reportingOfficer") String reportingOfficer);
-}
\ No newline at end of file
+    // Batch decisions: all requests and their employees in one IN-query
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.userProfile WHERE lr.requestId IN :requestIds")
+    List<LeaveRequest> findAllWithUserProfileByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query(VIEW_SELECT + "WHERE u.employeeSerialNumber = :employeeSerialNumber ORDER BY lr.appliedDate DESC")
+    List<LeaveRequestView> findHistoryViews(@Param("employeeSerialNumber") String employeeSerialNumber);
+
+    @Query(VIEW_SELECT + "WHERE lr.status = :status ORDER BY lr.appliedDate DESC")
+    List<LeaveRequestView> findViewsByStatus(@Param("status") LeaveStatus status);
+
+    @Query(VIEW_SELECT + "WHERE u.reportingOfficer = :reportingOfficer ORDER BY lr.appliedDate DESC")
+    List<LeaveRequestView> findTeamViews(@Param("reportingOfficer") String reportingOfficer);
+
+    @Query(VIEW_SELECT + "WHERE lr.startDate <= :endDate AND lr.endDate >= :startDate AND lr.status = 'APPROVED' " +
+           "ORDER BY lr.startDate")
+    List<LeaveRequestView> findApprovedViewsInDateRange(@Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate);
+
+    // Loads the calendar index: every approved leave still running on or after the horizon
+    @Query(VIEW_SELECT + "WHERE lr.endDate >= :horizon AND lr.status = 'APPROVED'")
+    List<LeaveRequestView> findApprovedViewsEndingOnOrAfter(@Param("horizon") LocalDate horizon);
+
+    // Conditional GETs: fingerprint of an employee's history without loading it. Deliberately not
+    // query-cached, so writes made outside Hibernate are still seen.
+    @Query("SELECT new com.erp.admin.dto.ResourceVersion(COUNT(lr), MAX(lr.lastModified)) FROM LeaveRequest lr " +
+           "WHERE lr.userProfile.employeeSerialNumber = :employeeSerialNumber")
+    ResourceVersion findHistoryVersion(@Param("employeeSerialNumber") String employeeSerialNumber);
+}
@@ -0,0 +1,73 @@
+package com.erp.admin.repository;
+
+import com.erp.admin.model.TeamLeaveSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface TeamLeaveSummaryRepository extends JpaRepository<TeamLeaveSummary, Long> {
+
+    Optional<TeamLeaveSummary> findByReportingOfficerAndYear(String reportingOfficer, Integer year);
+
+    // Creates the zero row for an officer/year if it is missing; a no-op when it already exists.
+    // The native writes declare their table so they do not flush the whole second-level cache.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO team_leave_summary (reporting_officer, year, pending_count, approved_count, " +
+                   "rejected_count, casual_days_used, sick_days_used, leave_with_pay_days_used, leave_without_pay_days_used) " +
+                   "VALUES (:reportingOfficer, :year, 0, 0, 0, 0, 0, 0, 0)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "team_leave_summary"))
+    int insertIfAbsent(@Param("reportingOfficer") String reportingOfficer, @Param("year") Integer year);
+
+    // In-place delta update - concurrent status changes add up instead of overwriting each other
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TeamLeaveSummary t SET t.pendingCount = t.pendingCount + :pending, " +
+           "t.approvedCount = t.approvedCount + :approved, t.rejectedCount = t.rejectedCount + :rejected, " +
+           "t.casualDaysUsed = t.casualDaysUsed + :casualDays, t.sickDaysUsed = t.sickDaysUsed + :sickDays, " +
+           "t.leaveWithPayDaysUsed = t.leaveWithPayDaysUsed + :withPayDays, " +
+           "t.leaveWithoutPayDaysUsed = t.leaveWithoutPayDaysUsed + :withoutPayDays " +
+           "WHERE t.reportingOfficer = :reportingOfficer AND t.year = :year")
+    int applyDelta(@Param("reportingOfficer") String reportingOfficer,
+                   @Param("year") Integer year,
+                   @Param("pending") int pending,
+                   @Param("approved") int approved,
+                   @Param("rejected") int rejected,
+                   @Param("casualDays") int casualDays,
+                   @Param("sickDays") int sickDays,
+                   @Param("withPayDays") int withPayDays,
+                   @Param("withoutPayDays") int withoutPayDays);
+
+    @Modifying
+    @Query("DELETE FROM TeamLeaveSummary t WHERE t.year = :year")
+    int deleteByYear(@Param("year") Integer year);
+
+    // Full recomputation for a year from leave_request, used to seed the table and to repair drift
+    @Modifying
+    @Query(value = "INSERT INTO team_leave_summary (reporting_officer, year, pending_count, approved_count, rejected_count, " +
+                   "casual_days_used, sick_days_used, leave_with_pay_days_used, leave_without_pay_days_used) " +
+                   "SELECT u.reporting_officer, :year, " +
+                   "SUM(CASE WHEN lr.status = 'PENDING' THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'APPROVED' THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'REJECTED' THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'APPROVED' AND lr.leave_type = 'CASUAL' THEN lr.total_days ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'APPROVED' AND lr.leave_type = 'SICK' THEN lr.total_days ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'APPROVED' AND lr.leave_type = 'LEAVE_WITH_PAY' THEN lr.total_days ELSE 0 END), " +
+                   "SUM(CASE WHEN lr.status = 'APPROVED' AND lr.leave_type = 'LEAVE_WITHOUT_PAY' THEN lr.total_days ELSE 0 END) " +
+                   "FROM leave_request lr JOIN user_profile u ON u.employee_serial_number = lr.employee_serial_number " +
+                   "WHERE u.reporting_officer IS NOT NULL AND lr.start_date >= :yearStart AND lr.start_date < :nextYearStart " +
+                   "GROUP BY u.reporting_officer",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "team_leave_summary"))
+    int rebuildYear(@Param("year") Integer year,
+                    @Param("yearStart") LocalDate yearStart,
+                    @Param("nextYearStart") LocalDate nextYearStart);
+}
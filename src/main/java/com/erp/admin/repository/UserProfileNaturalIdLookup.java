@@ -0,0 +1,12 @@
+package com.erp.admin.repository;
+
+import com.erp.admin.model.UserProfile;
+
+import java.util.Optional;
+
+// Lookups by employee serial number through Hibernate's natural-id API, so repeated lookups are
+// answered from the natural-id and entity caches instead of a query each time
+public interface UserProfileNaturalIdLookup {
+
+    Optional<UserProfile> findByEmployeeSerialNumber(String employeeSerialNumber);
+}
@@ -0,0 +1,26 @@
+package com.erp.admin.repository;
+
+import com.erp.admin.model.UserProfile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+class UserProfileNaturalIdLookupImpl implements UserProfileNaturalIdLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<UserProfile> findByEmployeeSerialNumber(String employeeSerialNumber) {
+        if (employeeSerialNumber == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(UserProfile.class)
+                .loadOptional(employeeSerialNumber);
+    }
+}
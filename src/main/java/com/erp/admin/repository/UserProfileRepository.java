@@ -1,17 +1,52 @@
 package com.erp.admin.repository;
 
+import com.erp.admin.dto.UserDocumentPaths;
+import com.erp.admin.dto.UserProfileSummary;
 import com.erp.admin.model.UserProfile;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
-    
-    // Find by Employee Serial Number
-    Optional<UserProfile> findByEmployeeSerialNumber(String employeeSerialNumber);
-    
-    // Check if employee serial number exists
-    boolean existsByEmployeeSerialNumber(String employeeSerialNumber);
-}
\ No newline at end of file
+// findByEmployeeSerialNumber comes from UserProfileNaturalIdLookup (cached)
+public interface UserProfileRepository extends JpaRepository<UserProfile, Long>, UserProfileNaturalIdLookup {
+
+    // Index-only check on the unique serial number; /save asks this for serials that mostly do not exist yet,
+    // where the natural-id lookup would miss the cache and load the whole row
+    @Query("SELECT COUNT(u) > 0 FROM UserProfile u WHERE u.employeeSerialNumber = :employeeSerialNumber")
+    boolean existsByEmployeeSerialNumber(@Param("employeeSerialNumber") String employeeSerialNumber);
+
+    // Photo reference only, so conditional GETs never load the profile row
+    @Query("SELECT u.photoFilePath FROM UserProfile u WHERE u.srNo = :srNo")
+    Optional<String> findPhotoFilePathBySrNo(@Param("srNo") Long srNo);
+
+    @Query("SELECT u.panFilePath AS panFilePath, u.adhaarFilePath AS adhaarFilePath, " +
+           "u.passbookFilePath AS passbookFilePath, u.photoFilePath AS photoFilePath " +
+           "FROM UserProfile u WHERE u.srNo = :srNo")
+    Optional<UserDocumentPaths> findDocumentPathsBySrNo(@Param("srNo") Long srNo);
+
+    @Query("SELECT u.srNo AS srNo, u.employeeSerialNumber AS employeeSerialNumber, u.employeeName AS employeeName, " +
+           "u.designation AS designation, u.department AS department, u.reportingOfficer AS reportingOfficer, " +
+           "u.emailAddress AS emailAddress, u.dateOfJoining AS dateOfJoining, u.status AS status " +
+           "FROM UserProfile u WHERE u.srNo = :srNo")
+    Optional<UserProfileSummary> findSummaryBySrNo(@Param("srNo") Long srNo);
+
+    // Keyset pages of summary columns only - never touches photo or TEXT columns
+    @Query("SELECT u.srNo AS srNo, u.employeeSerialNumber AS employeeSerialNumber, u.employeeName AS employeeName, " +
+           "u.designation AS designation, u.department AS department, u.reportingOfficer AS reportingOfficer, " +
+           "u.emailAddress AS emailAddress, u.dateOfJoining AS dateOfJoining, u.status AS status " +
+           "FROM UserProfile u WHERE u.srNo > :afterSrNo ORDER BY u.srNo")
+    List<UserProfileSummary> findSummariesAfterSrNo(@Param("afterSrNo") Long afterSrNo, Limit limit);
+
+    @Query("SELECT u.srNo AS srNo, u.employeeSerialNumber AS employeeSerialNumber, u.employeeName AS employeeName, " +
+           "u.designation AS designation, u.department AS department, u.reportingOfficer AS reportingOfficer, " +
+           "u.emailAddress AS emailAddress, u.dateOfJoining AS dateOfJoining, u.status AS status " +
+           "FROM UserProfile u WHERE u.employeeSerialNumber > :afterSerialNumber ORDER BY u.employeeSerialNumber")
+    List<UserProfileSummary> findSummariesAfterEmployeeSerialNumber(@Param("afterSerialNumber") String afterSerialNumber,
+                                                                   Limit limit);
+}
@@ -0,0 +1,182 @@
+package com.erp.admin.service;
+
+import com.erp.admin.model.LeaveStatus;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+// CSV extracts written straight from a forward-only JDBC result set: each row is printed as it is
+// read and nothing is collected, so heap use does not grow with the size of the export. A streaming
+// export holds a pooled connection until the client has downloaded everything, so only
+// export.max-concurrent may run at once; callers take a slot with tryAcquireSlot and release it after.
+@Service
+public class CsvExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvExportService.class);
+
+    // Rows between flushes, so the client sees progress on long exports
+    private static final int FLUSH_EVERY = 1000;
+
+    // Directory data for HR extracts; bank, identity, medical and legal columns stay out of it
+    private static final String[] USER_PROFILE_HEADER = {"srNo", "employeeSerialNumber", "employeeName",
+            "emailAddress", "emergencyContactNumber", "designation", "department", "reportingOfficer",
+            "dateOfJoining", "grossSalary", "status"};
+
+    private static final String USER_PROFILE_SQL = "SELECT sr_no, employee_serial_number, employee_name, email_address, " +
+            "emergency_contact_number, designation, department, reporting_officer, date_of_joining, gross_salary, status " +
+            "FROM user_profile ORDER BY sr_no";
+
+    private static final String[] LEAVE_REQUEST_HEADER = {"requestId", "employeeSerialNumber", "employeeName",
+            "department", "leaveType", "startDate", "endDate", "totalDays", "status", "appliedDate",
+            "approvedDate", "approvedBy", "reason", "rejectionReason"};
+
+    private static final String LEAVE_REQUEST_SQL = "SELECT lr.request_id, lr.employee_serial_number, u.employee_name, " +
+            "u.department, lr.leave_type, lr.start_date, lr.end_date, lr.total_days, lr.status, lr.applied_date, " +
+            "lr.approved_date, lr.approved_by, lr.reason, lr.rejection_reason " +
+            "FROM leave_request lr JOIN user_profile u ON u.employee_serial_number = lr.employee_serial_number " +
+            "WHERE lr.start_date <= ? AND lr.end_date >= ?";
+
+    // Leading characters that make Excel and LibreOffice evaluate a cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Semaphore exportSlots;
+
+    public CsvExportService(@Value("${export.max-concurrent:2}") int maxConcurrent) {
+        this.exportSlots = new Semaphore(maxConcurrent);
+    }
+
+    // MySQL only streams when the fetch size is Integer.MIN_VALUE (any other value buffers the whole
+    // result in the driver); other databases take it as a plain batch size
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+
+    public long exportUserProfiles(OutputStream out) throws IOException {
+        long rows = export(out, USER_PROFILE_HEADER, USER_PROFILE_SQL, List.of(), (rs, printer) -> printer.printRecord(
+                rs.getLong("sr_no"),
+                text(rs, "employee_serial_number"),
+                text(rs, "employee_name"),
+                text(rs, "email_address"),
+                text(rs, "emergency_contact_number"),
+                text(rs, "designation"),
+                text(rs, "department"),
+                text(rs, "reporting_officer"),
+                rs.getObject("date_of_joining", LocalDate.class),
+                rs.getBigDecimal("gross_salary"),
+                text(rs, "status")));
+        logger.info("Exported {} user profiles as CSV", rows);
+        return rows;
+    }
+
+    // Leave requests overlapping the window (including ones that started before it), optionally narrowed
+    public long exportLeaveRequests(LocalDate startDate, LocalDate endDate, LeaveStatus status, String department,
+                                    OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(LEAVE_REQUEST_SQL);
+        List<Object> args = new ArrayList<>(List.of(endDate, startDate));
+        if (status != null) {
+            sql.append(" AND lr.status = ?");
+            args.add(status.name());
+        }
+        if (department != null && !department.isBlank()) {
+            sql.append(" AND u.department = ?");
+            args.add(department);
+        }
+        sql.append(" ORDER BY lr.start_date, lr.request_id");
+
+        long rows = export(out, LEAVE_REQUEST_HEADER, sql.toString(), args, (rs, printer) -> printer.printRecord(
+                rs.getLong("request_id"),
+                text(rs, "employee_serial_number"),
+                text(rs, "employee_name"),
+                text(rs, "department"),
+                text(rs, "leave_type"),
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("end_date", LocalDate.class),
+                rs.getInt("total_days"),
+                text(rs, "status"),
+                rs.getObject("applied_date", LocalDate.class),
+                rs.getObject("approved_date", LocalDate.class),
+                text(rs, "approved_by"),
+                text(rs, "reason"),
+                text(rs, "rejection_reason")));
+        logger.info("Exported {} leave requests as CSV for {} to {}", rows, startDate, endDate);
+        return rows;
+    }
+
+    // Free text from the database, quoted with a leading apostrophe when a spreadsheet would read it as a formula
+    private static String text(ResultSet rs, String column) throws SQLException {
+        String value = rs.getString(column);
+        if (value != null && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface RowPrinter {
+        void print(ResultSet rs, CSVPrinter printer) throws SQLException, IOException;
+    }
+
+    private long export(OutputStream out, String[] header, String sql, List<Object> args, RowPrinter rowPrinter)
+            throws IOException {
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader(header).build();
+        CSVPrinter printer = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), format);
+        long[] rows = {0};
+        RowCallbackHandler handler = rs -> {
+            try {
+                rowPrinter.print(rs, printer);
+                if (++rows[0] % FLUSH_EVERY == 0) {
+                    printer.flush();
+                }
+            } catch (IOException e) {
+                // Client went away - surfaces below, and closing the result set ends the query
+                throw new UncheckedIOException(e);
+            }
+        };
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // Flush only: the caller owns the response stream (and any gzip wrapper around it)
+        printer.flush();
+        return rows[0];
+    }
+}
@@ -0,0 +1,319 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.EmployeeSearchHit;
+import com.erp.admin.dto.UserProfileSummary;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.repository.UserProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index for employee typeahead. Names, serial numbers, departments, designations
+// and reporting officers are split into lowercase tokens kept in a sorted map, so every query term is
+// a prefix range scan over tokens; all terms must match. Hits are ranked by which field matched and
+// whether the whole token did, and come back as summary rows without touching the database.
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Per-term score of the best matching field; a whole-token match counts double
+    private static final int SERIAL_NUMBER_WEIGHT = 8;
+    private static final int NAME_WEIGHT = 6;
+    private static final int DEPARTMENT_WEIGHT = 3;
+    private static final int DESIGNATION_WEIGHT = 3;
+    private static final int REPORTING_OFFICER_WEIGHT = 1;
+    // A query that is exactly someone's serial number puts that employee first
+    private static final int EXACT_SERIAL_NUMBER_BONUS = 1000;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    // Guards the index reference and the maps inside it; held only for lookups, single saves and the swap
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time; a lock rather than a monitor, so a virtual thread paging the table is not pinned
+    private final Lock loadLock = new ReentrantLock();
+    private Index index = new Index();
+    // Saves applied while a rebuild is paging the table, replayed onto the new index before it is swapped in
+    private List<EmployeeSearchHit> savedDuringLoad;
+
+    // One employee's tokens as flat arrays: checking a term against them is a short array scan
+    private record WeightedTokens(String[] tokens, int[] weights) {
+    }
+
+    // Best first: higher score, then the shorter name (more of it matched), then the lower Sr. No.
+    // Primitive keys only, since every candidate of a short prefix goes through this comparison.
+    private record Ranked(EmployeeSearchHit hit, int score, int nameLength) implements Comparable<Ranked> {
+
+        @Override
+        public int compareTo(Ranked other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            if (nameLength != other.nameLength) {
+                return Integer.compare(nameLength, other.nameLength);
+            }
+            return Long.compare(hit.srNo(), other.hit.srNo());
+        }
+    }
+
+    // Also called after a bulk import, whose JDBC inserts bypass onSaved. The new index is built off to the
+    // side while searches keep using the old one; saves committing meanwhile go to both (the new one via the
+    // replay list, since their rows may already have been paged past) and the swap is a short write lock.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                savedDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index fresh = new Index();
+            int loaded = 0;
+            try {
+                long afterSrNo = 0;
+                List<UserProfileSummary> page;
+                do {
+                    page = userProfileRepository.findSummariesAfterSrNo(afterSrNo, Limit.of(LOAD_PAGE_SIZE));
+                    for (UserProfileSummary summary : page) {
+                        fresh.put(EmployeeSearchHit.of(summary));
+                        afterSrNo = summary.getSrNo();
+                    }
+                    loaded += page.size();
+                } while (page.size() == LOAD_PAGE_SIZE);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    savedDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (EmployeeSearchHit hit : savedDuringLoad) {
+                    fresh.remove(hit.srNo());
+                    fresh.put(hit);
+                }
+                savedDuringLoad = null;
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Employee search index loaded {} employees, {} tokens", loaded, fresh.postings.size());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Called from the create, update and status-change paths; applied once the save has committed
+    public void onSaved(UserProfile profile) {
+        onSaved(EmployeeSearchHit.of(profile));
+    }
+
+    // Partial updates written without loading the entity re-read just the summary columns
+    public void onSaved(UserProfileSummary summary) {
+        onSaved(EmployeeSearchHit.of(summary));
+    }
+
+    private void onSaved(EmployeeSearchHit hit) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                index.remove(hit.srNo());
+                index.put(hit);
+                if (savedDuringLoad != null) {
+                    savedDuringLoad.add(hit);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public List<EmployeeSearchHit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String wholeQuery = query.trim().toLowerCase(Locale.ROOT);
+
+        // Worst-ranked of the best `limit` hits on top, so it is the one replaced
+        PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        lock.readLock().lock();
+        try {
+            Index index = this.index;
+            // Only the most selective term is looked up in the token map; the other terms are checked
+            // against each of its candidates' own few tokens
+            String drivingTerm = terms.get(0);
+            long fewest = Long.MAX_VALUE;
+            for (String term : terms) {
+                long postingCount = 0;
+                for (Map<Long, Integer> employees : index.tokensWithPrefix(term).values()) {
+                    postingCount += employees.size();
+                }
+                if (postingCount < fewest) {
+                    fewest = postingCount;
+                    drivingTerm = term;
+                }
+            }
+            List<String> otherTerms = new ArrayList<>(terms);
+            otherTerms.remove(drivingTerm);
+
+            index.matchPrefix(drivingTerm).forEach((srNo, drivingScore) -> {
+                WeightedTokens tokens = index.tokensBySrNo.get(srNo);
+                int score = drivingScore;
+                for (String term : otherTerms) {
+                    int termScore = scoreTerm(tokens, term);
+                    if (termScore == 0) {
+                        return;
+                    }
+                    score += termScore;
+                }
+                EmployeeSearchHit hit = index.bySrNo.get(srNo);
+                if (hit.employeeSerialNumber() != null && hit.employeeSerialNumber().equalsIgnoreCase(wholeQuery)) {
+                    score += EXACT_SERIAL_NUMBER_BONUS;
+                }
+                Ranked candidate = new Ranked(hit, score, hit.employeeName() == null ? 0 : hit.employeeName().length());
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (candidate.compareTo(best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(null);
+        return ranked.stream().map(Ranked::hit).toList();
+    }
+
+    // Same scoring as matchPrefix, for one employee's tokens; 0 when none starts with the term
+    private static int scoreTerm(WeightedTokens tokens, String term) {
+        int best = 0;
+        for (int i = 0; i < tokens.tokens().length; i++) {
+            String token = tokens.tokens()[i];
+            if (token.startsWith(term)) {
+                int weight = token.length() == term.length() ? tokens.weights()[i] * 2 : tokens.weights()[i];
+                best = Math.max(best, weight);
+            }
+        }
+        return best;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static WeightedTokens weightedTokens(EmployeeSearchHit hit) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, hit.employeeSerialNumber(), SERIAL_NUMBER_WEIGHT);
+        addTokens(tokens, hit.employeeName(), NAME_WEIGHT);
+        addTokens(tokens, hit.department(), DEPARTMENT_WEIGHT);
+        addTokens(tokens, hit.designation(), DESIGNATION_WEIGHT);
+        addTokens(tokens, hit.reportingOfficer(), REPORTING_OFFICER_WEIGHT);
+
+        String[] names = new String[tokens.size()];
+        int[] weights = new int[tokens.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+            names[i] = token.getKey();
+            weights[i++] = token.getValue();
+        }
+        return new WeightedTokens(names, weights);
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String field, int weight) {
+        for (String token : tokenize(field)) {
+            tokens.merge(token, weight, Math::max);
+        }
+    }
+
+    // The searchable state: postings plus each employee's hit and tokens
+    private static final class Index {
+
+        // token -> (srNo -> weight of the best field containing the token)
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, EmployeeSearchHit> bySrNo = new HashMap<>();
+        private final Map<Long, WeightedTokens> tokensBySrNo = new HashMap<>();
+
+        // Best weight per employee over every token starting with the term
+        private Map<Long, Integer> matchPrefix(String term) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Integer>> token : tokensWithPrefix(term).entrySet()) {
+                boolean wholeToken = token.getKey().length() == term.length();
+                token.getValue().forEach((srNo, weight) -> termScores.merge(srNo, wholeToken ? weight * 2 : weight, Math::max));
+            }
+            return termScores;
+        }
+
+        private NavigableMap<String, Map<Long, Integer>> tokensWithPrefix(String prefix) {
+            return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        private void put(EmployeeSearchHit hit) {
+            WeightedTokens tokens = weightedTokens(hit);
+            bySrNo.put(hit.srNo(), hit);
+            tokensBySrNo.put(hit.srNo(), tokens);
+            for (int i = 0; i < tokens.tokens().length; i++) {
+                postings.computeIfAbsent(tokens.tokens()[i], k -> new HashMap<>()).put(hit.srNo(), tokens.weights()[i]);
+            }
+        }
+
+        private void remove(Long srNo) {
+            bySrNo.remove(srNo);
+            WeightedTokens tokens = tokensBySrNo.remove(srNo);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens.tokens()) {
+                Map<Long, Integer> employees = postings.get(token);
+                if (employees != null) {
+                    employees.remove(srNo);
+                    if (employees.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+    }
+}
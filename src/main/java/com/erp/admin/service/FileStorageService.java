@@ -1,38 +1,235 @@
 package com.erp.admin.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Bytes handed to FileChannel.transferFrom per call
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    // Values of the metrics' type tag; anything else is reported as "other"
+    private static final Set<String> METRIC_KINDS = Set.of("pan", "adhaar", "passbook", "photo", "request");
+
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    @Value("${file.upload.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Value("${file.upload.max-request-size:40MB}")
+    private DataSize maxRequestSize;
+
+    @Autowired
+    @Qualifier("fileStorageExecutor")
+    private TaskExecutor fileStorageExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public String storeFile(MultipartFile file, String fileType) throws IOException {
         if (file == null || file.isEmpty()) {
             return null;
         }
+        return writeStreaming(file, fileType, new AtomicLong(maxRequestSize.toBytes()));
+    }
+
+    // Stores all parts of one upload concurrently, keyed by fileType; returns the stored path per fileType.
+    // Either every part is stored or none is - parts already written are removed when another one fails.
+    public Map<String, String> storeFiles(Map<String, MultipartFile> filesByType) throws IOException {
+        Map<String, MultipartFile> present = new LinkedHashMap<>();
+        long declaredBytes = 0;
+        for (Map.Entry<String, MultipartFile> entry : filesByType.entrySet()) {
+            MultipartFile file = entry.getValue();
+            if (file != null && !file.isEmpty()) {
+                present.put(entry.getKey(), file);
+                declaredBytes += file.getSize();
+            }
+        }
+        if (declaredBytes > maxRequestSize.toBytes()) {
+            recordRejected("request");
+            throw new UploadTooLargeException("Upload of " + declaredBytes + " bytes exceeds the request limit of "
+                    + maxRequestSize.toBytes() + " bytes");
+        }
+
+        AtomicLong requestBudget = new AtomicLong(maxRequestSize.toBytes());
+        Map<String, CompletableFuture<String>> writes = new LinkedHashMap<>();
+        present.forEach((fileType, file) -> writes.put(fileType, CompletableFuture.supplyAsync(() -> {
+            try {
+                return writeStreaming(file, fileType, requestBudget);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, fileStorageExecutor)));
+
+        Map<String, String> storedPaths = new LinkedHashMap<>();
+        IOException failure = null;
+        for (Map.Entry<String, CompletableFuture<String>> write : writes.entrySet()) {
+            try {
+                storedPaths.put(write.getKey(), write.getValue().join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof UncheckedIOException io ? io.getCause()
+                            : new IOException("Failed to store " + write.getKey(), e.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            deleteQuietly(new ArrayList<>(storedPaths.values()));
+            throw failure;
+        }
+        return storedPaths;
+    }
+
+    // Same layout as storeFile, for content that is already in memory (e.g. legacy photo blobs)
+    public String storeBytes(byte[] content, String fileType, String originalFileName) throws IOException {
+        Path uploadPath = Paths.get(uploadDir, fileType);
+        Files.createDirectories(uploadPath);
+
+        Path filePath = uploadPath.resolve(UUID.randomUUID().toString() + "_" + originalFileName);
+        Files.write(filePath, content);
+        recordStored(fileType, content.length);
+
+        return filePath.toString();
+    }
+
+    // Resolve a path previously returned by storeFile; refuses anything outside the upload directory
+    public Path resolveStoredFile(String storedPath) throws IOException {
+        if (storedPath == null || storedPath.isBlank()) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = Paths.get(storedPath).toAbsolutePath().normalize();
+        if (!file.startsWith(root)) {
+            throw new IOException("Stored file is outside the upload directory: " + storedPath);
+        }
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    // Stored names are "<uuid>_<original>" and never rewritten, so the uuid is a strong validator
+    public String etagOf(Path storedFile) {
+        String name = storedFile.getFileName().toString();
+        int separator = name.indexOf('_');
+        return separator > 0 ? name.substring(0, separator) : name;
+    }
 
-        // Create directory if it doesn't exist
+    // Channel-to-channel copy into a hidden temp file next to the target, then an atomic rename,
+    // so readers never see a partial file. Stops as soon as the per-file or per-request cap is crossed.
+    private String writeStreaming(MultipartFile file, String fileType, AtomicLong requestBudget) throws IOException {
         Path uploadPath = Paths.get(uploadDir, fileType);
         Files.createDirectories(uploadPath);
 
-        // Generate unique filename
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path filePath = uploadPath.resolve(fileName);
+        String id = UUID.randomUUID().toString();
+        Path filePath = uploadPath.resolve(id + "_" + sanitize(file.getOriginalFilename()));
+        Path tempPath = uploadPath.resolve("." + id + ".part");
+        long fileLimit = maxFileSize.toBytes();
+        long written = 0;
 
-        // Copy file to the target location
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream in = file.getInputStream();
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tempPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long transferred;
+            // Ask for one byte past the cap so an oversized part is detected without reading it all
+            while ((transferred = target.transferFrom(source, written, Math.min(TRANSFER_CHUNK, fileLimit + 1 - written))) > 0) {
+                written += transferred;
+                if (written > fileLimit) {
+                    throw new UploadTooLargeException(file.getOriginalFilename() + " exceeds the file size limit of "
+                            + fileLimit + " bytes");
+                }
+                if (requestBudget.addAndGet(-transferred) < 0) {
+                    throw new UploadTooLargeException("Upload exceeds the request limit of " + maxRequestSize.toBytes() + " bytes");
+                }
+            }
+            target.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            if (e instanceof UploadTooLargeException) {
+                recordRejected(fileType);
+            }
+            throw e;
+        }
 
+        Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE);
+        recordStored(fileType, written);
         return filePath.toString();
     }
+
+    // file.upload.bytes: size of every stored file per document type (count and total give throughput)
+    private void recordStored(String fileType, long bytes) {
+        DistributionSummary.builder("file.upload.bytes")
+                .description("Bytes written to the file store per stored file")
+                .baseUnit("bytes")
+                .tag("type", documentKind(fileType))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private void recordRejected(String fileType) {
+        Counter.builder("file.upload.rejected")
+                .description("Uploads refused for exceeding the size limits")
+                .tag("type", documentKind(fileType))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // File types are "<kind>_<employee serial>"; only the kind is a tag, so the series stay bounded
+    private String documentKind(String fileType) {
+        int separator = fileType.indexOf('_');
+        String kind = separator > 0 ? fileType.substring(0, separator) : fileType;
+        return METRIC_KINDS.contains(kind) ? kind : "other";
+    }
+
+    // Keep the original name for readability but never let it escape the target directory
+    private String sanitize(String originalFileName) {
+        if (originalFileName == null || originalFileName.isBlank()) {
+            return "file";
+        }
+        return Paths.get(originalFileName).getFileName().toString();
+    }
+
+    private void deleteQuietly(List<String> storedPaths) {
+        for (String storedPath : storedPaths) {
+            try {
+                Files.deleteIfExists(Paths.get(storedPath));
+            } catch (IOException e) {
+                logger.warn("Could not remove partially stored upload {}", storedPath, e);
+            }
+        }
+    }
 }
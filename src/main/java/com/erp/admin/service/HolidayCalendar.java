@@ -0,0 +1,127 @@
+package com.erp.admin.service;
+
+import com.erp.admin.model.CompanyHoliday;
+import com.erp.admin.repository.CompanyHolidayRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Per-year working-day index: weekends and active holidays compiled once into a bitset with prefix sums,
+// so counting working days in any range is O(years spanned) and needs no query after the first use of a year.
+// At most leave.calendar.max-cached-years compiled years are kept; least recently used ones are recompiled.
+@Component
+public class HolidayCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendar.class);
+
+    @Autowired
+    private CompanyHolidayRepository companyHolidayRepository;
+
+    @Value("${leave.calendar.weekend-days:SATURDAY,SUNDAY}")
+    private Set<DayOfWeek> weekendDays = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    private final Cache<Integer, YearCalendar> years;
+
+    public HolidayCalendar(@Value("${leave.calendar.max-cached-years:32}") long maxCachedYears) {
+        this.years = Caffeine.newBuilder().maximumSize(maxCachedYears).build();
+    }
+
+    // Working days in [startDate, endDate], both inclusive
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        int workingDays = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            YearCalendar calendar = forYear(year);
+            int fromDay = year == startDate.getYear() ? startDate.getDayOfYear() : 1;
+            int toDay = year == endDate.getYear() ? endDate.getDayOfYear() : calendar.length();
+            workingDays += calendar.countWorkingDays(fromDay, toDay);
+        }
+        return workingDays;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return forYear(date.getYear()).isWorkingDay(date.getDayOfYear());
+    }
+
+    // Drop the compiled year once the surrounding transaction commits, so the rebuild sees the change
+    public void invalidate(int year) {
+        AfterCommit.run(() -> years.invalidate(year));
+    }
+
+    public void invalidateAll() {
+        years.invalidateAll();
+    }
+
+    private YearCalendar forYear(int year) {
+        return years.get(year, this::load);
+    }
+
+    private YearCalendar load(int year) {
+        List<CompanyHoliday> holidays = companyHolidayRepository.findHolidaysInRange(
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        logger.debug("Compiling holiday calendar for {} with {} holidays", year, holidays.size());
+        return YearCalendar.compile(year, holidays.stream().map(CompanyHoliday::getHolidayDate).toList(), weekendDays);
+    }
+
+    // Immutable compiled form of one calendar year; day indexes are 1-based day-of-year
+    public static final class YearCalendar {
+
+        private final BitSet nonWorkingDays;
+        // workingDaysBefore[d] = number of working days on days 1..d-1
+        private final int[] workingDaysBefore;
+
+        private YearCalendar(BitSet nonWorkingDays, int[] workingDaysBefore) {
+            this.nonWorkingDays = nonWorkingDays;
+            this.workingDaysBefore = workingDaysBefore;
+        }
+
+        public static YearCalendar compile(int year, Collection<LocalDate> holidays, Set<DayOfWeek> weekendDays) {
+            LocalDate firstDay = LocalDate.of(year, 1, 1);
+            int length = firstDay.lengthOfYear();
+
+            BitSet nonWorkingDays = new BitSet(length + 1);
+            for (int day = 1; day <= length; day++) {
+                if (weekendDays.contains(firstDay.plusDays(day - 1L).getDayOfWeek())) {
+                    nonWorkingDays.set(day);
+                }
+            }
+            for (LocalDate holiday : holidays) {
+                if (holiday != null && holiday.getYear() == year) {
+                    nonWorkingDays.set(holiday.getDayOfYear());
+                }
+            }
+
+            int[] workingDaysBefore = new int[length + 2];
+            for (int day = 1; day <= length; day++) {
+                workingDaysBefore[day + 1] = workingDaysBefore[day] + (nonWorkingDays.get(day) ? 0 : 1);
+            }
+            return new YearCalendar(nonWorkingDays, workingDaysBefore);
+        }
+
+        public int length() {
+            return workingDaysBefore.length - 2;
+        }
+
+        public boolean isWorkingDay(int dayOfYear) {
+            return !nonWorkingDays.get(dayOfYear);
+        }
+
+        public int countWorkingDays(int fromDayOfYear, int toDayOfYear) {
+            return workingDaysBefore[toDayOfYear + 1] - workingDaysBefore[fromDayOfYear];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.IdempotentResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for create endpoints. The first request with a key claims it in the store and
+// runs the handler; its response is recorded against the key. Repeats within idempotency.ttl get that
+// response back without running anything, and repeats arriving while the first is still running - on this
+// instance or, with the jdbc store, any other - wait for it instead of starting a second run. The key is
+// bound to a hash of the request, so reusing it for a different request is refused with 422 rather than
+// replaying someone else's response. 5xx and 429 responses are not recorded, so a retry after a server
+// error or a rate-limit refusal runs again.
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    // Set on replayed responses so clients and logs can tell them from a fresh run
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    // Keys are stored as "<scope>:<key>" in a 255 character column
+    private static final int MAX_KEY_LENGTH = 200;
+
+    // How often a duplicate checks whether the run holding the key has finished
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.in-flight-wait:30s}")
+    private Duration inFlightWait;
+
+    // scope keeps the same key sent to different endpoints apart; without a key the handler just runs
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, RequestFingerprint request,
+                                     Supplier<ResponseEntity<?>> handler) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return handler.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String key = scope + ":" + idempotencyKey;
+        String requestHash;
+        try {
+            requestHash = request.hash(objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the request to check its " + HEADER, e);
+        }
+
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (true) {
+            Optional<IdempotencyStore.Entry> existing = store.claim(key, requestHash);
+            if (existing.isEmpty()) {
+                return runOnce(key, handler);
+            }
+            IdempotencyStore.Entry entry = existing.get();
+            if (!entry.requestHash().equals(requestHash)) {
+                logger.warn("Idempotency key {} reused for a different request", key);
+                return ResponseEntity.unprocessableEntity()
+                        .body(Map.of("error", HEADER + " was already used for a different request"));
+            }
+            if (entry.response() != null) {
+                return replay(key, entry.response());
+            }
+
+            // Still running; if that run gives the key up without a response, the next claim takes it over
+            if (System.nanoTime() - deadline >= 0) {
+                return inProgress();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return inProgress();
+            }
+        }
+    }
+
+    private ResponseEntity<?> runOnce(String key, Supplier<ResponseEntity<?>> handler) {
+        ResponseEntity<?> response;
+        try {
+            response = handler.get();
+        } catch (RuntimeException | Error e) {
+            store.release(key);
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError() || response.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+            store.release(key);
+            return response;
+        }
+        try {
+            store.complete(key, snapshot(response));
+        } catch (JsonProcessingException e) {
+            logger.warn("Response for idempotency key {} could not be recorded", key, e);
+            store.release(key);
+            throw new IllegalStateException("Could not record response for " + HEADER, e);
+        }
+        return response;
+    }
+
+    // The body as the client received it: strings as text, everything else as JSON
+    private IdempotentResponse snapshot(ResponseEntity<?> response) throws JsonProcessingException {
+        Object body = response.getBody();
+        MediaType contentType = response.getHeaders().getContentType();
+        byte[] bytes;
+        if (body == null) {
+            bytes = new byte[0];
+        } else if (body instanceof String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (contentType == null) {
+                contentType = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+            }
+        } else {
+            bytes = objectMapper.writeValueAsBytes(body);
+            if (contentType == null) {
+                contentType = MediaType.APPLICATION_JSON;
+            }
+        }
+        return new IdempotentResponse(response.getStatusCode().value(),
+                contentType == null ? null : contentType.toString(), bytes);
+    }
+
+    private ResponseEntity<?> replay(String key, IdempotentResponse response) {
+        logger.debug("Replaying recorded response for idempotency key {}", key);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status()).header(REPLAYED_HEADER, "true");
+        if (response.contentType() != null) {
+            builder.contentType(MediaType.parseMediaType(response.contentType()));
+        }
+        return builder.body(response.body());
+    }
+
+    private ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A request with this " + HEADER + " is still being processed"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.IdempotentResponse;
+
+import java.util.Optional;
+
+// Idempotency keys claimed by a request and, once it finished, its response; dropped after idempotency.ttl.
+// Selected by idempotency.store.
+interface IdempotencyStore {
+
+    // What a key holds: the hash of the request that claimed it, and its response (null while it runs)
+    record Entry(String requestHash, IdempotentResponse response) {
+    }
+
+    // Claims the key for a run of the request with this hash. Empty when the caller now owns the key,
+    // otherwise the entry already there. A pending claim older than idempotency.pending-timeout is taken over.
+    Optional<Entry> claim(String key, String requestHash);
+
+    // Records the response of the run that owns the key; first response wins
+    void complete(String key, IdempotentResponse response);
+
+    // Gives up a pending claim (no response worth keeping) so the next request with the key runs again
+    void release(String key);
+}
@@ -0,0 +1,67 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.IdempotentResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+// Default store: per instance, bounded by idempotency.max-entries and expired after idempotency.ttl.
+// Lost on restart, and a retry routed to another instance is not recognised - use the jdbc store for that.
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    // claimedUntil (nanoTime) only matters while the response is still missing
+    private record Stored(Entry entry, long claimedUntil) {
+    }
+
+    private final ConcurrentMap<String, Stored> entries;
+    private final long pendingTimeoutNanos;
+
+    InMemoryIdempotencyStore(@Value("${idempotency.max-entries:10000}") long maxEntries,
+                             @Value("${idempotency.ttl:24h}") Duration ttl,
+                             @Value("${idempotency.pending-timeout:2m}") Duration pendingTimeout) {
+        Cache<String, Stored> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.entries = cache.asMap();
+        this.pendingTimeoutNanos = pendingTimeout.toNanos();
+    }
+
+    @Override
+    public Optional<Entry> claim(String key, String requestHash) {
+        long now = System.nanoTime();
+        Stored claim = new Stored(new Entry(requestHash, null), now + pendingTimeoutNanos);
+        while (true) {
+            Stored current = entries.putIfAbsent(key, claim);
+            if (current == null) {
+                return Optional.empty();
+            }
+            boolean abandoned = current.entry().response() == null && current.claimedUntil() - now <= 0;
+            if (!abandoned) {
+                return Optional.of(current.entry());
+            }
+            if (entries.replace(key, current, claim)) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        entries.computeIfPresent(key, (k, current) -> current.entry().response() != null ? current
+                : new Stored(new Entry(current.entry().requestHash(), response), current.claimedUntil()));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.computeIfPresent(key, (k, current) -> current.entry().response() == null ? null : current);
+    }
+}
@@ -0,0 +1,79 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.IdempotentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// idempotency.store=jdbc: claims and responses live in the idempotency_key table, so they survive restarts
+// and are shared by every instance - a retry landing on another instance while the first run is still going
+// finds its claim. Size is bounded by the TTL; expired rows are purged on a schedule.
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "jdbc")
+class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.pending-timeout:2m}")
+    private Duration pendingTimeout;
+
+    // Expired rows (an old response past its TTL, or a claim abandoned by a crashed instance) are cleared
+    // first; then INSERT IGNORE lets exactly one request, on any instance, own the key
+    @Override
+    public Optional<Entry> claim(String key, String requestHash) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND expires_at <= ?", key, now);
+            int claimed = jdbcTemplate.update("INSERT IGNORE INTO idempotency_key (idempotency_key, request_hash, expires_at) " +
+                    "VALUES (?, ?, ?)", key, requestHash, now.plus(pendingTimeout));
+            if (claimed == 1) {
+                return Optional.empty();
+            }
+            Optional<Entry> existing = jdbcTemplate.query("SELECT request_hash, status_code, content_type, response_body " +
+                            "FROM idempotency_key WHERE idempotency_key = ?",
+                    (rs, rowNum) -> new Entry(rs.getString("request_hash"), rs.getObject("status_code") == null ? null
+                            : new IdempotentResponse(rs.getInt("status_code"), rs.getString("content_type"),
+                            rs.getBytes("response_body"))),
+                    key).stream().findFirst();
+            // Released between our insert and the lookup - try to claim it again
+            if (existing.isPresent()) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_key SET status_code = ?, content_type = ?, response_body = ?, expires_at = ? " +
+                        "WHERE idempotency_key = ? AND status_code IS NULL",
+                response.status(), response.contentType(), response.body(), LocalDateTime.now().plus(ttl), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND status_code IS NULL", key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at <= ?", LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.erp.admin.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Creates every employee's leave balance for the year ahead of the first read,
+// at year rollover and once on startup to catch up after downtime
+@Component
+public class LeaveBalanceProvisioningJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveBalanceProvisioningJob.class);
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionOnStartup() {
+        provisionCurrentYear();
+    }
+
+    @Scheduled(cron = "${leave.balance.provisioning-cron:0 5 0 1 1 *}")
+    public void provisionCurrentYear() {
+        int year = LocalDate.now().getYear();
+        try {
+            leaveService.provisionLeaveBalances(year);
+        } catch (Exception e) {
+            logger.error("Leave balance provisioning failed for year {}", year, e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.repository.LeaveRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory interval index of approved leaves for the calendar views.
+// Leaves are keyed by start day; a window [from, to] overlaps every leave starting in
+// [from - longestLeave, to] whose end is >= from, so a query touches only nearby entries.
+// Windows that begin before the loaded horizon fall back to the overlap query in the database.
+// Entries carry the employee's name and department, refreshed by onProfileChanged when a profile is edited.
+@Component
+public class LeaveCalendarIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveCalendarIndex.class);
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    // Full years kept in memory before the current one
+    @Value("${leave.calendar.index-years-back:1}")
+    private int yearsBack;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Map<Long, LeaveRequestView>> byStartDay = new TreeMap<>();
+    private final Map<Long, LeaveRequestView> byRequestId = new HashMap<>();
+    private final Map<String, Set<Long>> requestIdsBySerial = new HashMap<>();
+    private long longestLeaveDays;
+    private volatile LocalDate horizon = LocalDate.MAX;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate newHorizon = LocalDate.now().minusYears(yearsBack).withDayOfYear(1);
+        List<LeaveRequestView> approved;
+
+        // Query under the write lock: approvals committing meanwhile wait and are applied on top of the snapshot.
+        // Readers are not blocked - until the horizon is set they use the database.
+        lock.writeLock().lock();
+        try {
+            approved = leaveRequestRepository.findApprovedViewsEndingOnOrAfter(newHorizon);
+            byStartDay.clear();
+            byRequestId.clear();
+            requestIdsBySerial.clear();
+            longestLeaveDays = 0;
+            approved.forEach(this::put);
+            horizon = newHorizon;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Leave calendar index loaded {} approved leaves from {}", approved.size(), newHorizon);
+    }
+
+    // Called for newly approved leaves; applied once the approving transaction commits
+    public void onApproved(LeaveRequestView leave) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(leave.requestId());
+                put(leave);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void onDeleted(Long requestId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(requestId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Called when a profile's name or department may have changed; applied once the edit commits, so the
+    // indexed leaves filter and name the employee as the database fallback does
+    public void onProfileChanged(String employeeSerialNumber, String employeeName, String department) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Set<Long> requestIds = requestIdsBySerial.get(employeeSerialNumber);
+                if (requestIds == null) {
+                    return;
+                }
+                for (Long requestId : requestIds) {
+                    LeaveRequestView current = byRequestId.get(requestId);
+                    LeaveRequestView refreshed = current.withEmployee(employeeName, department);
+                    byRequestId.put(requestId, refreshed);
+                    byStartDay.get(current.startDate().toEpochDay()).put(requestId, refreshed);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Approved leaves overlapping [startDate, endDate], optionally for one department, ordered by start date
+    public List<LeaveRequestView> findOverlapping(LocalDate startDate, LocalDate endDate, String department) {
+        if (endDate.isBefore(startDate)) {
+            return List.of();
+        }
+        List<LeaveRequestView> result;
+        if (startDate.isBefore(horizon)) {
+            result = new ArrayList<>(leaveRequestRepository.findApprovedViewsInDateRange(startDate, endDate));
+            result.removeIf(leave -> !inDepartment(leave, department));
+            return result;
+        }
+
+        result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long from = startDate.toEpochDay();
+            long to = endDate.toEpochDay();
+            for (Map<Long, LeaveRequestView> leaves : byStartDay.subMap(from - longestLeaveDays, true, to, true).values()) {
+                for (LeaveRequestView leave : leaves.values()) {
+                    if (leave.endDate().toEpochDay() >= from && inDepartment(leave, department)) {
+                        result.add(leave);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(LeaveRequestView::startDate).thenComparing(LeaveRequestView::requestId));
+        return result;
+    }
+
+    // Number of approved leaves covering each day of [startDate, endDate]
+    public Map<LocalDate, Integer> headcountByDay(LocalDate startDate, LocalDate endDate, String department) {
+        Map<LocalDate, Integer> headcount = new LinkedHashMap<>();
+        if (endDate.isBefore(startDate)) {
+            return headcount;
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        // Difference array: +1 where a leave enters the window, -1 the day after it ends
+        int[] change = new int[days + 1];
+        for (LeaveRequestView leave : findOverlapping(startDate, endDate, department)) {
+            LocalDate first = leave.startDate().isBefore(startDate) ? startDate : leave.startDate();
+            LocalDate last = leave.endDate().isAfter(endDate) ? endDate : leave.endDate();
+            change[(int) ChronoUnit.DAYS.between(startDate, first)]++;
+            change[(int) ChronoUnit.DAYS.between(startDate, last) + 1]--;
+        }
+        int running = 0;
+        for (int day = 0; day < days; day++) {
+            running += change[day];
+            headcount.put(startDate.plusDays(day), running);
+        }
+        return headcount;
+    }
+
+    private boolean inDepartment(LeaveRequestView leave, String department) {
+        return department == null || department.isBlank() || department.equalsIgnoreCase(leave.department());
+    }
+
+    private void put(LeaveRequestView leave) {
+        byStartDay.computeIfAbsent(leave.startDate().toEpochDay(), k -> new HashMap<>()).put(leave.requestId(), leave);
+        byRequestId.put(leave.requestId(), leave);
+        requestIdsBySerial.computeIfAbsent(leave.employeeSerialNumber(), k -> new HashSet<>()).add(leave.requestId());
+        longestLeaveDays = Math.max(longestLeaveDays, ChronoUnit.DAYS.between(leave.startDate(), leave.endDate()));
+    }
+
+    private void remove(Long requestId) {
+        LeaveRequestView existing = byRequestId.remove(requestId);
+        if (existing == null) {
+            return;
+        }
+        Set<Long> requestIds = requestIdsBySerial.get(existing.employeeSerialNumber());
+        if (requestIds != null) {
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                requestIdsBySerial.remove(existing.employeeSerialNumber());
+            }
+        }
+        long startDay = existing.startDate().toEpochDay();
+        Map<Long, LeaveRequestView> leaves = byStartDay.get(startDay);
+        if (leaves != null) {
+            leaves.remove(requestId);
+            if (leaves.isEmpty()) {
+                byStartDay.remove(startDay);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.erp.admin.service;
+
+// A status transition that no longer applies, typically because a concurrent decision won; mapped to
+// 409 by the controllers
+public class LeaveConflictException extends Exception {
+
+    public LeaveConflictException(String message) {
+        super(message);
+    }
+}
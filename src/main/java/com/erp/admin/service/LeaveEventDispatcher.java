@@ -0,0 +1,227 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.LeaveEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Polls leave_event_outbox and delivers pending events in batches to every LeaveEventHandler, at least once.
+// A batch is claimed by stamping a fresh claim_token and pushing available_at out by the lease, so several
+// instances can poll the same table without delivering a row twice concurrently; rows of an instance that
+// died mid-batch become due again when the lease runs out. Failed events are retried with exponential
+// backoff and parked (failed_at) after outbox.max-attempts.
+@Component
+public class LeaveEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaveEventDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<LeaveEventHandler> handlers = List.of();
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.lease:PT1M}")
+    private Duration lease;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-initial-delay:PT5S}")
+    private Duration retryInitialDelay;
+
+    @Value("${outbox.retry-max-delay:PT10M}")
+    private Duration retryMaxDelay;
+
+    @Value("${outbox.retention:P7D}")
+    private Duration retention;
+
+    private final Counter dispatched;
+    private final Counter retried;
+    private final Counter parked;
+
+    public LeaveEventDispatcher(MeterRegistry meterRegistry) {
+        this.dispatched = outcomeCounter(meterRegistry, "dispatched");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.parked = outcomeCounter(meterRegistry, "parked");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("leave.events")
+                .description("Leave lifecycle events handled by the outbox dispatcher")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Drains full batches back to back, then waits for the next poll
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:PT1S}")
+    public void dispatchPending() {
+        try {
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            logger.error("Leave event dispatch failed", e);
+        }
+    }
+
+    // Claims, delivers and settles one batch; returns the number of events claimed
+    public int dispatchBatch() {
+        String claimToken = UUID.randomUUID().toString();
+        List<OutboxRow> rows = claim(claimToken);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<LeaveEvent> events = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            try {
+                events.add(objectMapper.readValue(row.payload(), LeaveEvent.class).withEventId(row.eventId()));
+            } catch (Exception e) {
+                failures.put(row.eventId(), "Unreadable payload: " + e.getMessage());
+            }
+        }
+        deliver(events, failures);
+
+        List<Long> delivered = rows.stream()
+                .map(OutboxRow::eventId)
+                .filter(eventId -> !failures.containsKey(eventId))
+                .toList();
+        markDispatched(delivered, claimToken);
+        rows.stream()
+                .filter(row -> failures.containsKey(row.eventId()))
+                .forEach(row -> reschedule(row, failures.get(row.eventId()), claimToken));
+        return rows.size();
+    }
+
+    // Deletes dispatched events past outbox.retention; parked events are kept for inspection
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:PT1H}")
+    public void purgeDispatched() {
+        int purged = jdbcTemplate.update("DELETE FROM leave_event_outbox WHERE dispatched_at <= ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            logger.info("Purged {} dispatched leave events", purged);
+        }
+    }
+
+    // Picks due candidates, then claims them with a guarded UPDATE: a row another instance claimed in
+    // between no longer matches and is simply left out of this batch
+    private List<OutboxRow> claim(String claimToken) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidates = jdbcTemplate.queryForList("SELECT event_id FROM leave_event_outbox " +
+                        "WHERE dispatched_at IS NULL AND failed_at IS NULL AND available_at <= ? ORDER BY event_id LIMIT ?",
+                Long.class, Timestamp.valueOf(now), batchSize);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", candidates)
+                .addValue("token", claimToken)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("leaseEnd", Timestamp.valueOf(now.plus(lease)));
+        int claimed = namedParameterJdbcTemplate.update("UPDATE leave_event_outbox " +
+                "SET claim_token = :token, available_at = :leaseEnd " +
+                "WHERE event_id IN (:ids) AND dispatched_at IS NULL AND failed_at IS NULL AND available_at <= :now", params);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query("SELECT event_id, payload, attempts FROM leave_event_outbox " +
+                        "WHERE event_id IN (:ids) AND claim_token = :token ORDER BY event_id", params,
+                (rs, rowNum) -> new OutboxRow(rs.getLong("event_id"), rs.getString("payload"), rs.getInt("attempts")));
+    }
+
+    // Each handler gets the whole batch; if it throws, the batch is replayed to it one event at a time
+    // so a single bad event does not hold back the rest
+    private void deliver(List<LeaveEvent> events, Map<Long, String> failures) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (LeaveEventHandler handler : handlers) {
+            try {
+                handler.handle(events);
+            } catch (Exception batchFailure) {
+                logger.warn("{} failed a batch of {} leave events, retrying them individually",
+                        handler.getClass().getSimpleName(), events.size(), batchFailure);
+                for (LeaveEvent event : events) {
+                    try {
+                        handler.handle(List.of(event));
+                    } catch (Exception e) {
+                        failures.merge(event.eventId(), handler.getClass().getSimpleName() + ": " + e.getMessage(),
+                                (first, next) -> first + "; " + next);
+                    }
+                }
+            }
+        }
+    }
+
+    private void markDispatched(List<Long> eventIds, String claimToken) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update("UPDATE leave_event_outbox SET dispatched_at = :now, claim_token = NULL " +
+                        "WHERE event_id IN (:ids) AND claim_token = :token",
+                new MapSqlParameterSource()
+                        .addValue("ids", eventIds)
+                        .addValue("token", claimToken)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+        dispatched.increment(eventIds.size());
+    }
+
+    private void reschedule(OutboxRow row, String error, String claimToken) {
+        int attempts = row.attempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (attempts >= maxAttempts) {
+            jdbcTemplate.update("UPDATE leave_event_outbox SET attempts = ?, last_error = ?, failed_at = ?, claim_token = NULL " +
+                    "WHERE event_id = ? AND claim_token = ?", attempts, lastError, Timestamp.valueOf(now), row.eventId(), claimToken);
+            parked.increment();
+            logger.error("Leave event {} parked after {} attempts: {}", row.eventId(), attempts, lastError);
+            return;
+        }
+        jdbcTemplate.update("UPDATE leave_event_outbox SET attempts = ?, last_error = ?, available_at = ?, claim_token = NULL " +
+                        "WHERE event_id = ? AND claim_token = ?",
+                attempts, lastError, Timestamp.valueOf(now.plus(backoff(attempts))), row.eventId(), claimToken);
+        retried.increment();
+        logger.warn("Leave event {} failed (attempt {}), retrying later: {}", row.eventId(), attempts, lastError);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryInitialDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+
+    private record OutboxRow(long eventId, String payload, int attempts) {
+    }
+}
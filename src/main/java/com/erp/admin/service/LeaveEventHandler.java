@@ -0,0 +1,16 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.LeaveEvent;
+
+import java.util.List;
+
+// In-process consumer of leave lifecycle events; every bean implementing this is picked up by
+// LeaveEventDispatcher. Delivery is at-least-once and outside any transaction: an event can arrive again
+// after a failure (of this or another handler) or a dispatcher crash, so handlers must be idempotent,
+// e.g. keyed by eventId. Events of a batch come in recording order.
+public interface LeaveEventHandler {
+
+    // Throwing fails the batch for this handler; it is then retried one event at a time, and only the
+    // events that fail again are redelivered later
+    void handle(List<LeaveEvent> events) throws Exception;
+}
@@ -0,0 +1,66 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.LeaveEvent;
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.model.LeaveEventType;
+import com.erp.admin.model.LeaveRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records leave lifecycle events in leave_event_outbox inside the caller's transaction, so an event exists
+// exactly when the change it describes committed. The cost on the request path is one INSERT (one JDBC
+// batch for bulk decisions) however many handlers consume the events; delivery is LeaveEventDispatcher's job.
+@Component
+public class LeaveEventOutbox {
+
+    private static final String INSERT = "INSERT INTO leave_event_outbox " +
+            "(event_type, request_id, payload, created_at, available_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(LeaveEventType type, LeaveRequest leaveRequest) {
+        recordAll(type, List.of(leaveRequest));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(LeaveEventType type, List<LeaveRequest> leaveRequests) {
+        if (leaveRequests.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(leaveRequests.size());
+        for (LeaveRequest leaveRequest : leaveRequests) {
+            LeaveEvent event = new LeaveEvent(null, type, now, LeaveRequestView.of(leaveRequest));
+            rows.add(new Object[]{type.name(), leaveRequest.getRequestId(), serialize(event), timestamp, timestamp});
+        }
+        if (rows.size() == 1) {
+            jdbcTemplate.update(INSERT, rows.get(0));
+        } else {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    private String serialize(LeaveEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize leave event " + event.type(), e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.erp.admin.service;
 
+import com.erp.admin.dto.BatchItemResult;
+import com.erp.admin.dto.LeaveRequestView;
+import com.erp.admin.dto.ResourceVersion;
 import com.erp.admin.model.*;
 import com.erp.admin.repository.*;
 import org.slf4j.Logger;
@@ -8,17 +11,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class LeaveService {
 
     private static final Logger logger = LoggerFactory.getLogger(LeaveService.class);
 
+    // Yearly allowance per leave type; provisioned balances start here and restores never exceed it
+    private static final int ANNUAL_LEAVE_ALLOWANCE = 12;
+
+    // Longest single application, same bound as the headcount window
+    private static final int MAX_LEAVE_DAYS = 366;
+
     @Autowired
     private LeaveRequestRepository leaveRequestRepository;
 
@@ -31,9 +44,30 @@ public class LeaveService {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
+    @Autowired
+    private TeamLeaveSummaryService teamLeaveSummaryService;
+
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    // Side effects beyond the leave tables (notifications, feeds, ...) consume these events asynchronously
+    @Autowired
+    private LeaveEventOutbox leaveEventOutbox;
+
     
     @Transactional
     public LeaveRequest applyLeave(LeaveRequest leaveRequest) throws Exception {
+        // Checked before any query: counting working days compiles every calendar year the range spans
+        if (leaveRequest.getStartDate() == null || leaveRequest.getEndDate() == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
+        }
+        if (ChronoUnit.DAYS.between(leaveRequest.getStartDate(), leaveRequest.getEndDate()) >= MAX_LEAVE_DAYS) {
+            throw new IllegalArgumentException("A leave application is limited to " + MAX_LEAVE_DAYS + " days");
+        }
+
         // Validate user exists
         UserProfile user = userProfileRepository.findByEmployeeSerialNumber(leaveRequest.getUserProfile().getEmployeeSerialNumber())
                 .orElseThrow(() -> new Exception("User not found"));
@@ -56,16 +90,22 @@ public class LeaveService {
         }
 
         leaveRequest.setUserProfile(user);
-        return leaveRequestRepository.save(leaveRequest);
+        LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
+        teamLeaveSummaryService.recordApplied(savedRequest);
+        leaveEventOutbox.record(LeaveEventType.LEAVE_APPLIED, savedRequest);
+        return savedRequest;
     }
 
+    // Decisions and deletes on the same request are serialized by its @Version, not by row locks:
+    // the loser's transaction (including its balance deduction) rolls back and is retried
+    @RetryOnConflict
     @Transactional
     public LeaveRequest approveLeave(Long requestId, String approvedBy) throws Exception {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(requestId)
                 .orElseThrow(() -> new Exception("Leave request not found"));
 
         if (leaveRequest.getStatus() != LeaveStatus.PENDING) {
-            throw new Exception("Leave request is not in pending status");
+            throw new LeaveConflictException("Leave request is not in pending status");
         }
 
         String employeeSerialNumber = leaveRequest.getUserProfile().getEmployeeSerialNumber();
@@ -76,116 +116,216 @@ public class LeaveService {
         logger.info("Approving leave for employee: {}, Type: {}, Days: {}", 
                 employeeSerialNumber, leaveType, totalDays);
 
-        // Get current balance
-        LeaveBalance currentBalance = getLeaveBalance(employeeSerialNumber, currentYear);
-        if (currentBalance == null) {
-            throw new Exception("Leave balance not found for employee");
-        }
-
-        // Check if sufficient balance exists
-        int availableBalance = getCurrentBalance(currentBalance, leaveType);
-        if (availableBalance < totalDays) {
+        // Check and deduct in one guarded UPDATE - no read-modify-write window for a racing approval
+        int deducted = leaveBalanceRepository.deductBalance(employeeSerialNumber, currentYear, leaveType, totalDays);
+        if (deducted == 0) {
+            LeaveBalance currentBalance = getLeaveBalance(employeeSerialNumber, currentYear);
+            if (currentBalance == null) {
+                throw new Exception("Leave balance not found for employee");
+            }
+            int availableBalance = getCurrentBalance(currentBalance, leaveType);
             throw new Exception("Insufficient leave balance. Available: " + availableBalance + ", Required: " + totalDays);
         }
 
-        // Deduct the balance
-        boolean balanceDeducted = deductLeaveBalanceDirectly(currentBalance, leaveType, totalDays);
-        if (!balanceDeducted) {
-            throw new Exception("Failed to deduct leave balance");
-        }
-
         // Update leave request status
         leaveRequest.setStatus(LeaveStatus.APPROVED);
         leaveRequest.setApprovedBy(approvedBy);
         leaveRequest.setApprovedDate(LocalDate.now());
 
         LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
+        teamLeaveSummaryService.recordStatusChange(savedRequest, LeaveStatus.PENDING);
+        leaveCalendarIndex.onApproved(LeaveRequestView.of(savedRequest));
+        leaveEventOutbox.record(LeaveEventType.LEAVE_APPROVED, savedRequest);
         
         logger.info("Leave approved successfully for employee: {}", employeeSerialNumber);
         return savedRequest;
     }
 
+    @RetryOnConflict
     @Transactional
     public LeaveRequest rejectLeave(Long requestId, String rejectionReason) throws Exception {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(requestId)
                 .orElseThrow(() -> new Exception("Leave request not found"));
 
         if (leaveRequest.getStatus() != LeaveStatus.PENDING) {
-            throw new Exception("Leave request is not in pending status");
+            throw new LeaveConflictException("Leave request is not in pending status");
         }
 
         leaveRequest.setStatus(LeaveStatus.REJECTED);
         leaveRequest.setRejectionReason(rejectionReason);
 
-        return leaveRequestRepository.save(leaveRequest);
+        LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
+        teamLeaveSummaryService.recordStatusChange(savedRequest, LeaveStatus.PENDING);
+        leaveEventOutbox.record(LeaveEventType.LEAVE_REJECTED, savedRequest);
+        return savedRequest;
     }
 
-    public List<LeaveRequest> getUserLeaveHistory(String employeeSerialNumber) {
-        return leaveRequestRepository.findByUserProfile_EmployeeSerialNumberOrderByAppliedDateDesc(employeeSerialNumber);
-    }
+    // Bulk approval for manager queues: one IN-query for the requests, one for the balances, one guarded
+    // deduction per employee and leave type, and the status updates flushed as a single JDBC batch.
+    // Items that fail validation are reported individually and do not affect the rest of the batch.
+    // A concurrent decision on any item retries the whole batch, which then reports that item as not pending.
+    @RetryOnConflict
+    @Transactional
+    public List<BatchItemResult> approveLeaves(List<Long> requestIds, String approvedBy) {
+        Map<Long, BatchItemResult> results = new LinkedHashMap<>();
+        List<LeaveRequest> pending = loadPendingForBatch(requestIds, results);
+        int currentYear = LocalDate.now().getYear();
 
-    public List<LeaveRequest> getPendingLeaveRequests() {
-        return leaveRequestRepository.findByStatusOrderByAppliedDateDesc(LeaveStatus.PENDING);
-    }
+        Set<String> employees = pending.stream()
+                .map(request -> request.getUserProfile().getEmployeeSerialNumber())
+                .collect(Collectors.toSet());
+        Map<String, LeaveBalance> balances = employees.isEmpty() ? Map.of() :
+                leaveBalanceRepository.findByEmployeeSerialNumbersAndYear(employees, currentYear).stream()
+                        .collect(Collectors.toMap(balance -> balance.getUserProfile().getEmployeeSerialNumber(), balance -> balance));
+
+        // Group per employee and leave type, keeping the order the manager submitted them in
+        Map<String, Map<LeaveType, List<LeaveRequest>>> groups = new LinkedHashMap<>();
+        for (LeaveRequest request : pending) {
+            groups.computeIfAbsent(request.getUserProfile().getEmployeeSerialNumber(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(request.getLeaveType(), k -> new ArrayList<>())
+                    .add(request);
+        }
 
-    public List<LeaveRequest> getTeamLeaveRequests(String reportingOfficer) {
-        return leaveRequestRepository.findByReportingOfficer(reportingOfficer);
-    }
+        List<LeaveRequest> approved = new ArrayList<>();
+        groups.forEach((employeeSerialNumber, byType) -> byType.forEach((leaveType, requests) -> {
+            LeaveBalance balance = balances.get(employeeSerialNumber);
+            if (balance == null) {
+                requests.forEach(request -> results.put(request.getRequestId(), BatchItemResult.failed(
+                        request.getRequestId(), request.getStatus(), "Leave balance not found for employee")));
+                return;
+            }
 
-    @Transactional
-    public LeaveBalance getLeaveBalance(String employeeSerialNumber, Integer year) {
-        try {
-            logger.info("=== Starting getLeaveBalance ===");
-            logger.info("Employee Serial Number: {}", employeeSerialNumber);
-            logger.info("Year: {}", year);
-            
-            // First check if balance exists
-            logger.info("Checking if leave balance already exists...");
-            Optional<LeaveBalance> existingBalance = leaveBalanceRepository.findByUserProfile_EmployeeSerialNumberAndYear(employeeSerialNumber, year);
-            
-            if (existingBalance.isPresent()) {
-                logger.info("Found existing leave balance with ID: {}", existingBalance.get().getBalanceId());
-                return existingBalance.get();
+            int available = getCurrentBalance(balance, leaveType);
+            int daysToDeduct = 0;
+            List<LeaveRequest> accepted = new ArrayList<>();
+            for (LeaveRequest request : requests) {
+                if (daysToDeduct + request.getTotalDays() <= available) {
+                    daysToDeduct += request.getTotalDays();
+                    accepted.add(request);
+                } else {
+                    results.put(request.getRequestId(), BatchItemResult.failed(request.getRequestId(), request.getStatus(),
+                            "Insufficient leave balance. Available: " + (available - daysToDeduct) + ", Required: " + request.getTotalDays()));
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
             }
 
-            logger.info("No existing balance found, checking if user exists...");
-            // If no balance exists, check if user exists first
-            Optional<UserProfile> userOpt = userProfileRepository.findByEmployeeSerialNumber(employeeSerialNumber);
-            if (userOpt.isEmpty()) {
-                logger.error("❌ User not found with employee serial number: {}", employeeSerialNumber);
-                return null;
+            if (leaveBalanceRepository.deductBalance(employeeSerialNumber, currentYear, leaveType, daysToDeduct) == 0) {
+                // Balance moved between our read and the guarded update - fail the group rather than overdraw
+                accepted.forEach(request -> results.put(request.getRequestId(), BatchItemResult.failed(
+                        request.getRequestId(), request.getStatus(), "Leave balance changed concurrently, please retry")));
+                return;
             }
+            approved.addAll(accepted);
+        }));
+
+        LocalDate today = LocalDate.now();
+        for (LeaveRequest request : approved) {
+            request.setStatus(LeaveStatus.APPROVED);
+            request.setApprovedBy(approvedBy);
+            request.setApprovedDate(today);
+            results.put(request.getRequestId(), BatchItemResult.succeeded(request.getRequestId(), LeaveStatus.APPROVED));
+            leaveCalendarIndex.onApproved(LeaveRequestView.of(request));
+        }
+        teamLeaveSummaryService.recordStatusChanges(approved, LeaveStatus.PENDING);
+        leaveEventOutbox.recordAll(LeaveEventType.LEAVE_APPROVED, approved);
 
-            UserProfile user = userOpt.get();
-            logger.info("✅ User found: {} (ID: {})", user.getEmployeeName(), user.getSrNo());
-
-            // Create new balance for the year
-            logger.info("Creating new leave balance...");
-            LeaveBalance newBalance = new LeaveBalance();
-            newBalance.setUserProfile(user);
-            newBalance.setYear(year);
-            newBalance.setCasualLeaveBalance(12);
-            newBalance.setSickLeaveBalance(12);
-            newBalance.setLeaveWithPayBalance(12);
-            newBalance.setLeaveWithoutPayBalance(12);
-            newBalance.setCreatedDate(LocalDate.now());
-            newBalance.setUpdatedDate(LocalDate.now());
-
-            logger.info("Saving new leave balance to database...");
-            LeaveBalance savedBalance = leaveBalanceRepository.save(newBalance);
-            logger.info("✅ Successfully created leave balance with ID: {} for employee: {}", savedBalance.getBalanceId(), employeeSerialNumber);
-            
-            return savedBalance;
-
-        } catch (Exception e) {
-            logger.error("❌ Exception in getLeaveBalance for employee: {} and year: {}", employeeSerialNumber, year, e);
-            logger.error("Exception type: {}", e.getClass().getSimpleName());
-            logger.error("Exception message: {}", e.getMessage());
-            if (e.getCause() != null) {
-                logger.error("Root cause: {}", e.getCause().getMessage());
+        logger.info("Batch approval by {}: {} of {} requests approved", approvedBy, approved.size(), results.size());
+        return new ArrayList<>(results.values());
+    }
+
+    @RetryOnConflict
+    @Transactional
+    public List<BatchItemResult> rejectLeaves(List<Long> requestIds, String rejectionReason) {
+        Map<Long, BatchItemResult> results = new LinkedHashMap<>();
+        List<LeaveRequest> rejected = loadPendingForBatch(requestIds, results);
+        for (LeaveRequest request : rejected) {
+            request.setStatus(LeaveStatus.REJECTED);
+            request.setRejectionReason(rejectionReason);
+            results.put(request.getRequestId(), BatchItemResult.succeeded(request.getRequestId(), LeaveStatus.REJECTED));
+        }
+        teamLeaveSummaryService.recordStatusChanges(rejected, LeaveStatus.PENDING);
+        leaveEventOutbox.recordAll(LeaveEventType.LEAVE_REJECTED, rejected);
+        return new ArrayList<>(results.values());
+    }
+
+    // Loads the batch in one query; ids that are missing or not pending are recorded as failures in results
+    private List<LeaveRequest> loadPendingForBatch(List<Long> requestIds, Map<Long, BatchItemResult> results) {
+        List<Long> ids = requestIds == null ? List.of() :
+                requestIds.stream().filter(Objects::nonNull).distinct().toList();
+        ids.forEach(id -> results.put(id, null));
+
+        Map<Long, LeaveRequest> found = ids.isEmpty() ? Map.of() :
+                leaveRequestRepository.findAllWithUserProfileByRequestIdIn(ids).stream()
+                        .collect(Collectors.toMap(LeaveRequest::getRequestId, request -> request));
+
+        List<LeaveRequest> pending = new ArrayList<>();
+        for (Long id : ids) {
+            LeaveRequest request = found.get(id);
+            if (request == null) {
+                results.put(id, BatchItemResult.failed(id, null, "Leave request not found"));
+            } else if (request.getStatus() != LeaveStatus.PENDING) {
+                results.put(id, BatchItemResult.failed(id, request.getStatus(), "Leave request is not in pending status"));
+            } else {
+                pending.add(request);
             }
-            throw new RuntimeException("Failed to get/create leave balance: " + e.getMessage(), e);
         }
+        return pending;
+    }
+
+    public List<LeaveRequestView> getUserLeaveHistory(String employeeSerialNumber) {
+        return leaveRequestRepository.findHistoryViews(employeeSerialNumber);
+    }
+
+    // The history rows also carry the employee's name and department, so those are folded into the version
+    @Transactional(readOnly = true)
+    public ResourceVersion getLeaveHistoryVersion(String employeeSerialNumber) {
+        ResourceVersion version = leaveRequestRepository.findHistoryVersion(employeeSerialNumber);
+        return userProfileRepository.findByEmployeeSerialNumber(employeeSerialNumber)
+                .map(user -> version.salted(user.getEmployeeName(), user.getDepartment()))
+                .orElse(version);
+    }
+
+    public List<LeaveRequestView> getPendingLeaveRequests() {
+        return leaveRequestRepository.findViewsByStatus(LeaveStatus.PENDING);
+    }
+
+    public List<LeaveRequestView> getTeamLeaveRequests(String reportingOfficer) {
+        return leaveRequestRepository.findTeamViews(reportingOfficer);
+    }
+
+    public TeamLeaveSummary getTeamLeaveSummary(String reportingOfficer, int year) {
+        return teamLeaveSummaryService.getSummary(reportingOfficer, year);
+    }
+
+    public int rebuildTeamLeaveSummaries(int year) {
+        return teamLeaveSummaryService.rebuild(year);
+    }
+
+    // Pure lookup - balances are provisioned up front by provisionLeaveBalances / provisionLeaveBalance
+    @Transactional(readOnly = true)
+    public LeaveBalance getLeaveBalance(String employeeSerialNumber, Integer year) {
+        return leaveBalanceRepository.findByUserProfile_EmployeeSerialNumberAndYear(employeeSerialNumber, year)
+                .orElse(null);
+    }
+
+    public ResourceVersion getLeaveBalanceVersion(String employeeSerialNumber, Integer year) {
+        return leaveBalanceRepository.findBalanceVersion(employeeSerialNumber, year);
+    }
+
+    // Creates the missing balances of every employee for the year in one INSERT ... SELECT
+    @Transactional
+    public int provisionLeaveBalances(int year) {
+        int created = leaveBalanceRepository.provisionBalancesForYear(year, ANNUAL_LEAVE_ALLOWANCE);
+        logger.info("Provisioned {} leave balances for year {}", created, year);
+        return created;
+    }
+
+    // Single-employee variant for newly created profiles
+    @Transactional
+    public boolean provisionLeaveBalance(String employeeSerialNumber, int year) {
+        return leaveBalanceRepository.provisionBalanceForEmployee(employeeSerialNumber, year, ANNUAL_LEAVE_ALLOWANCE) > 0;
     }
 
     // Add method to check if employee exists
@@ -196,39 +336,44 @@ public class LeaveService {
         return exists;
     }
 
-    public List<LeaveRequest> getCalendarLeaves(LocalDate startDate, LocalDate endDate) {
-        return leaveRequestRepository.findApprovedLeavesInDateRange(startDate, endDate);
+    // Served from the in-memory interval index; no SQL for windows inside the loaded horizon
+    public List<LeaveRequestView> getCalendarLeaves(LocalDate startDate, LocalDate endDate, String department) {
+        return leaveCalendarIndex.findOverlapping(startDate, endDate, department);
+    }
+
+    public Map<LocalDate, Integer> getCalendarHeadcount(LocalDate startDate, LocalDate endDate, String department) {
+        return leaveCalendarIndex.headcountByDay(startDate, endDate, department);
     }
 
     public List<CompanyHoliday> getHolidays(Integer year) {
         return companyHolidayRepository.findByYearAndStatusOrderByHolidayDate(year, 'A');
     }
 
-    private int calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
-        int workingDays = 0;
-        LocalDate current = startDate;
-
-        // Get holidays in the date range
-        List<CompanyHoliday> holidays = companyHolidayRepository.findHolidaysInRange(startDate, endDate);
-
-        while (!current.isAfter(endDate)) {
-            // Skip weekends (Saturday and Sunday)
-            if (current.getDayOfWeek() != DayOfWeek.SATURDAY &&
-                    current.getDayOfWeek() != DayOfWeek.SUNDAY) {
-
-                // Check if it's not a holiday
-                final LocalDate currentDate = current;
-                boolean isHoliday = holidays.stream()
-                        .anyMatch(holiday -> holiday.getHolidayDate().equals(currentDate));
+    public ResourceVersion getHolidaysVersion(Integer year) {
+        return companyHolidayRepository.findYearVersion(year);
+    }
 
-                if (!isHoliday) {
-                    workingDays++;
-                }
-            }
-            current = current.plusDays(1);
+    @Transactional
+    public CompanyHoliday addHoliday(CompanyHoliday holiday) throws Exception {
+        if (holiday.getHolidayDate() == null) {
+            throw new Exception("Holiday date is required");
+        }
+        holiday.setHolidayId(null);
+        if (holiday.getYear() == null) {
+            holiday.setYear(holiday.getHolidayDate().getYear());
+        }
+        if (companyHolidayRepository.existsByHolidayDateAndStatus(holiday.getHolidayDate(), 'A')) {
+            throw new Exception("An active holiday already exists on " + holiday.getHolidayDate());
         }
 
-        return workingDays;
+        CompanyHoliday savedHoliday = companyHolidayRepository.save(holiday);
+        holidayCalendar.invalidate(savedHoliday.getHolidayDate().getYear());
+        return savedHoliday;
+    }
+
+    // Weekends and active holidays come from the precompiled calendar - no query per apply
+    private int calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
+        return holidayCalendar.countWorkingDays(startDate, endDate);
     }
 
     private boolean hasSufficientBalance(String employeeSerialNumber, LeaveType leaveType, int requestedDays) {
@@ -244,58 +389,16 @@ public class LeaveService {
         };
     }
 
-    // New method to directly deduct balance from the entity
-    @Transactional
-    private boolean deductLeaveBalanceDirectly(LeaveBalance balance, LeaveType leaveType, int days) {
-        try {
-            int currentBalance = getCurrentBalance(balance, leaveType);
-            
-            logger.info("Before deduction - Type: {}, Current Balance: {}, Days to deduct: {}", 
-                    leaveType, currentBalance, days);
-            
-            if (currentBalance < days) {
-                logger.error("Insufficient balance. Current: {}, Required: {}", currentBalance, days);
-                return false;
-            }
-
-            switch (leaveType) {
-                case CASUAL -> balance.setCasualLeaveBalance(balance.getCasualLeaveBalance() - days);
-                case SICK -> balance.setSickLeaveBalance(balance.getSickLeaveBalance() - days);
-                case LEAVE_WITH_PAY -> balance.setLeaveWithPayBalance(balance.getLeaveWithPayBalance() - days);
-                case LEAVE_WITHOUT_PAY -> balance.setLeaveWithoutPayBalance(balance.getLeaveWithoutPayBalance() - days);
-                default -> {
-                    logger.error("Unknown leave type: {}", leaveType);
-                    return false;
-                }
-            }
-            
-            // Save and flush to ensure immediate persistence
-            LeaveBalance savedBalance = leaveBalanceRepository.saveAndFlush(balance);
-            
-            int newBalance = getCurrentBalance(savedBalance, leaveType);
-            logger.info("After deduction - Type: {}, New Balance: {}", leaveType, newBalance);
-            
-            return true;
-        } catch (Exception e) {
-            logger.error("Error deducting leave balance", e);
-            return false;
-        }
-    }
-
-    // Keep the old method for backward compatibility but make it use the new logic
+    // Keep the old method for backward compatibility but make it use the guarded update
     @Transactional
     public LeaveBalance deductLeaveBalance(String employeeSerialNumber, LeaveType leaveType, int days) {
-        Optional<LeaveBalance> balanceOpt = leaveBalanceRepository.findByUserProfile_EmployeeSerialNumberAndYear(
-            employeeSerialNumber, LocalDate.now().getYear());
-        
-        if (balanceOpt.isPresent()) {
-            LeaveBalance balance = balanceOpt.get();
-            boolean success = deductLeaveBalanceDirectly(balance, leaveType, days);
-            return success ? balance : null;
+        int year = LocalDate.now().getYear();
+        int deducted = leaveBalanceRepository.deductBalance(employeeSerialNumber, year, leaveType, days);
+        if (deducted == 0) {
+            logger.warn("Could not deduct {} {} days for employee: {} and year: {}", days, leaveType, employeeSerialNumber, year);
+            return null;
         }
-        
-        logger.warn("No leave balance found for employee: {} and year: {}", employeeSerialNumber, LocalDate.now().getYear());
-        return null;
+        return leaveBalanceRepository.findByUserProfile_EmployeeSerialNumberAndYear(employeeSerialNumber, year).orElse(null);
     }
 
     // Helper method to get current balance for a specific leave type
@@ -309,6 +412,7 @@ public class LeaveService {
         };
     }
 
+    @RetryOnConflict
     @Transactional
     public LeaveBalance deleteLeaveRequest(Long requestId) throws Exception {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(requestId)
@@ -324,7 +428,10 @@ public class LeaveService {
                     leaveRequest.getTotalDays());
         }
 
+        teamLeaveSummaryService.recordDeleted(leaveRequest);
+        leaveEventOutbox.record(LeaveEventType.LEAVE_DELETED, leaveRequest);
         leaveRequestRepository.delete(leaveRequest);
+        leaveCalendarIndex.onDeleted(requestId);
 
         // Return the updated balance
         return getLeaveBalance(employeeSerialNumber, year);
@@ -335,15 +442,10 @@ public class LeaveService {
     }
 
     private void restoreLeaveBalance(String employeeSerialNumber, LeaveType leaveType, int days) {
-        LeaveBalance balance = getLeaveBalance(employeeSerialNumber, LocalDate.now().getYear());
-        if (balance != null) {
-            switch (leaveType) {
-                case CASUAL -> balance.setCasualLeaveBalance(Math.min(12, balance.getCasualLeaveBalance() + days));
-                case SICK -> balance.setSickLeaveBalance(Math.min(12, balance.getSickLeaveBalance() + days));
-                case LEAVE_WITH_PAY -> balance.setLeaveWithPayBalance(Math.min(12, balance.getLeaveWithPayBalance() + days));
-                case LEAVE_WITHOUT_PAY -> balance.setLeaveWithoutPayBalance(Math.min(12, balance.getLeaveWithoutPayBalance() + days));
-            }
-            leaveBalanceRepository.save(balance);
+        int year = LocalDate.now().getYear();
+        int restored = leaveBalanceRepository.restoreBalance(employeeSerialNumber, year, leaveType, days, ANNUAL_LEAVE_ALLOWANCE);
+        if (restored == 0) {
+            logger.warn("No leave balance to restore for employee: {} and year: {}", employeeSerialNumber, year);
         }
     }
-}
\ No newline at end of file
+}
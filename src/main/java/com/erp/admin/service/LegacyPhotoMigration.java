@@ -0,0 +1,85 @@
+package com.erp.admin.service;
+
+import com.erp.admin.model.UserProfile;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Moves photos that were stored inline in user_profile.photo into the file store, one row at a time
+@Component
+@ConditionalOnProperty(name = "file.legacy-photo-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyPhotoMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyPhotoMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Map<String, Object>> pending;
+        try {
+            pending = jdbcTemplate.queryForList(
+                    "SELECT sr_no, employee_serial_number FROM user_profile " +
+                    "WHERE photo IS NOT NULL AND photo_file_path IS NULL");
+        } catch (DataAccessException e) {
+            // Schema created after the photo column was dropped - nothing to migrate
+            logger.debug("Legacy photo column not present, skipping photo migration");
+            return;
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.info("Migrating {} inline photos to the file store", pending.size());
+
+        int migrated = 0;
+        for (Map<String, Object> row : pending) {
+            Long srNo = ((Number) row.get("sr_no")).longValue();
+            String employeeSerialNumber = (String) row.get("employee_serial_number");
+            try {
+                byte[] photo = jdbcTemplate.queryForObject(
+                        "SELECT photo FROM user_profile WHERE sr_no = ?", byte[].class, srNo);
+                if (photo == null || photo.length == 0) {
+                    continue;
+                }
+                String photoFilePath = fileStorageService.storeBytes(photo, "photo_" + employeeSerialNumber, legacyFileName(photo));
+                jdbcTemplate.update("UPDATE user_profile SET photo_file_path = ?, photo = NULL WHERE sr_no = ?",
+                        photoFilePath, srNo);
+                // Written behind Hibernate's back - drop any cached copy of the profile
+                entityManagerFactory.getCache().evict(UserProfile.class, srNo);
+                migrated++;
+            } catch (Exception e) {
+                logger.error("Failed to migrate photo for Sr. No: {}", srNo, e);
+            }
+        }
+        logger.info("Migrated {} of {} inline photos", migrated, pending.size());
+    }
+
+    // The blob carried no file name; pick an extension from the magic bytes so the content type can be served
+    private String legacyFileName(byte[] photo) {
+        if (photo.length > 2 && (photo[0] & 0xFF) == 0xFF && (photo[1] & 0xFF) == 0xD8) {
+            return "photo.jpg";
+        }
+        if (photo.length > 3 && (photo[0] & 0xFF) == 0x89 && photo[1] == 'P' && photo[2] == 'N' && photo[3] == 'G') {
+            return "photo.png";
+        }
+        return "photo";
+    }
+}
@@ -0,0 +1,95 @@
+package com.erp.admin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+// The request an Idempotency-Key is bound to: method, path and the body parts the controller passes in.
+// Hashed (SHA-256) only when a key is present, so requests without one never read their uploads twice.
+public final class RequestFingerprint {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<Object> parts = new ArrayList<>();
+
+    private RequestFingerprint() {
+    }
+
+    public static RequestFingerprint of(HttpServletRequest request) {
+        RequestFingerprint fingerprint = new RequestFingerprint();
+        fingerprint.parts.add(request.getMethod());
+        fingerprint.parts.add(request.getRequestURI());
+        fingerprint.parts.add(request.getQueryString());
+        return fingerprint;
+    }
+
+    public RequestFingerprint text(String text) {
+        parts.add(text);
+        return this;
+    }
+
+    // A deserialized body, hashed as its JSON form
+    public RequestFingerprint json(Object body) {
+        parts.add(new JsonPart(body));
+        return this;
+    }
+
+    // An upload, hashed by name and content; null for a part that was not sent
+    public RequestFingerprint file(MultipartFile file) {
+        parts.add(file == null || file.isEmpty() ? null : file);
+        return this;
+    }
+
+    // Every part is tagged and length-prefixed, so moving bytes between parts changes the hash
+    String hash(ObjectMapper objectMapper) throws IOException {
+        MessageDigest digest = sha256();
+        for (Object part : parts) {
+            if (part == null) {
+                digest.update((byte) 0);
+            } else if (part instanceof String text) {
+                update(digest, (byte) 1, text.getBytes(StandardCharsets.UTF_8));
+            } else if (part instanceof JsonPart json) {
+                update(digest, (byte) 2, objectMapper.writeValueAsBytes(json.body()));
+            } else if (part instanceof MultipartFile file) {
+                String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename();
+                update(digest, (byte) 3, name.getBytes(StandardCharsets.UTF_8));
+                digest.update(ByteBuffer.allocate(Long.BYTES).putLong(file.getSize()).array());
+                try (InputStream in = file.getInputStream()) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, byte tag, byte[] bytes) {
+        digest.update(tag);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record JsonPart(Object body) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.erp.admin.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets for the expensive write endpoints, keyed by endpoint and subject: the employee serial number
+// for leave apply, the caller's address for profile create (every create names a new employee, so a serial
+// number key would hand each request a fresh bucket) and as a second limit on leave apply, which a client
+// rotating serial numbers would otherwise get past. Each endpoint's limit comes from
+// rate-limit.<endpoint>.capacity (burst) and .refill-period (time to earn one token back). Idle buckets are
+// evicted; a bucket only goes idle once it is full again, so eviction never hands out extra tokens.
+@Component
+public class RequestRateLimiter {
+
+    public static final String LEAVE_APPLY = "leave-apply";
+    public static final String LEAVE_APPLY_CLIENT = "leave-apply-client";
+    public static final String USER_PROFILE_CREATE = "user-profile-create";
+
+    private static final Map<String, Limit> DEFAULT_LIMITS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_LIMITS.put(LEAVE_APPLY, new Limit(10, Duration.ofSeconds(6)));
+        DEFAULT_LIMITS.put(LEAVE_APPLY_CLIENT, new Limit(30, Duration.ofSeconds(2)));
+        DEFAULT_LIMITS.put(USER_PROFILE_CREATE, new Limit(5, Duration.ofSeconds(12)));
+    }
+
+    record Limit(int capacity, Duration refillPeriod) {
+    }
+
+    private final boolean enabled;
+    private final Map<String, Limit> limits = new HashMap<>();
+    private final Map<String, Counter> allowed = new HashMap<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+    private final Cache<String, TokenBucket> buckets;
+
+    public RequestRateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        this.enabled = environment.getProperty("rate-limit.enabled", Boolean.class, true);
+        Duration idleEviction = DurationStyle.detectAndParse(environment.getProperty("rate-limit.idle-eviction", "10m"));
+        DEFAULT_LIMITS.forEach((endpoint, defaults) -> {
+            String prefix = "rate-limit." + endpoint + ".";
+            String refillPeriod = environment.getProperty(prefix + "refill-period");
+            Limit limit = new Limit(
+                    environment.getProperty(prefix + "capacity", Integer.class, defaults.capacity()),
+                    refillPeriod == null ? defaults.refillPeriod() : DurationStyle.detectAndParse(refillPeriod));
+            limits.put(endpoint, limit);
+            allowed.put(endpoint, requestCounter(meterRegistry, endpoint, "allowed"));
+            rejected.put(endpoint, requestCounter(meterRegistry, endpoint, "rejected"));
+        });
+
+        // Never evict before an idle bucket has refilled completely
+        Duration longestRefill = limits.values().stream()
+                .map(limit -> limit.refillPeriod().multipliedBy(limit.capacity()))
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("rate-limit.max-buckets", Long.class, 100_000L))
+                .expireAfterAccess(idleEviction.compareTo(longestRefill) >= 0 ? idleEviction : longestRefill)
+                .build();
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently held by the request rate limiter")
+                .register(meterRegistry);
+    }
+
+    // Takes a token for the subject on this endpoint. Duration.ZERO when the request may proceed,
+    // otherwise how long until the next token (the Retry-After). A missing subject shares one bucket.
+    public Duration tryAcquire(String endpoint, String subject) {
+        Limit limit = limits.get(endpoint);
+        if (limit == null) {
+            throw new IllegalArgumentException("No rate limit configured for " + endpoint);
+        }
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        String key = endpoint + ":" + (subject == null || subject.isBlank() ? "-" : subject);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(limit, now));
+        long waitNanos = bucket.tryTake(now);
+        (waitNanos == 0 ? allowed : rejected).get(endpoint).increment();
+        return Duration.ofNanos(waitNanos);
+    }
+
+    // Retry-After is whole seconds; round up so a client that honours it finds a token
+    public static long retryAfterSeconds(Duration wait) {
+        long seconds = wait.getSeconds() + (wait.getNano() > 0 ? 1 : 0);
+        return Math.max(1, seconds);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String endpoint, String outcome) {
+        return Counter.builder("rate.limit.requests")
+                .description("Requests checked by the request rate limiter")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // A token bucket held as a single timestamp: the nanoTime at which it is full again. Taking a token
+    // moves that point one refill period later, and a take is refused when it would move it more than
+    // capacity periods past now. One CAS per request and no lock. Takes the clock as an argument, so tests
+    // can drive it with a synthetic now.
+    static final class TokenBucket {
+
+        private final long refillNanos;
+        private final long burstNanos;
+        private final AtomicLong fullAt;
+
+        TokenBucket(Limit limit, long now) {
+            this.refillNanos = limit.refillPeriod().toNanos();
+            this.burstNanos = refillNanos * limit.capacity();
+            this.fullAt = new AtomicLong(now);
+        }
+
+        // 0 when a token was taken, otherwise nanoseconds until one will be available
+        long tryTake(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = (current - now > 0 ? current : now) + refillNanos;
+                long ahead = next - now;
+                if (ahead > burstNanos) {
+                    return ahead - burstNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
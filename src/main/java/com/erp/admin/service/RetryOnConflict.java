@@ -0,0 +1,24 @@
+package com.erp.admin.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Retries a @Transactional method whose commit lost an optimistic-lock race. The next attempt sees the
+// winner's changes, so a request that is no longer pending ends in LeaveConflictException rather than
+// a second write. Exponential backoff with random jitter keeps colliding callers from retrying in step.
+// Once the attempts are used up the OptimisticLockingFailureException reaches the caller (409).
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${leave.retry.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${leave.retry.initial-delay-ms:20}",
+                maxDelayExpression = "${leave.retry.max-delay-ms:200}",
+                multiplier = 2, random = true))
+@interface RetryOnConflict {
+}
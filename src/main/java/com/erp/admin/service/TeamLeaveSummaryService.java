@@ -0,0 +1,150 @@
+package com.erp.admin.service;
+
+import com.erp.admin.model.LeaveRequest;
+import com.erp.admin.model.LeaveStatus;
+import com.erp.admin.model.TeamLeaveSummary;
+import com.erp.admin.repository.TeamLeaveSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Keeps team_leave_summary in step with leave status changes so manager dashboards read one row
+// instead of scanning the team's whole leave history. Updates join the caller's transaction.
+@Service
+public class TeamLeaveSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamLeaveSummaryService.class);
+
+    @Autowired
+    private TeamLeaveSummaryRepository teamLeaveSummaryRepository;
+
+    @Transactional
+    public void recordApplied(LeaveRequest leaveRequest) {
+        apply(List.of(leaveRequest), null, LeaveStatus.PENDING);
+    }
+
+    @Transactional
+    public void recordStatusChange(LeaveRequest leaveRequest, LeaveStatus previousStatus) {
+        apply(List.of(leaveRequest), previousStatus, leaveRequest.getStatus());
+    }
+
+    // Batch variant: deltas are merged per officer and year, one UPDATE each
+    @Transactional
+    public void recordStatusChanges(List<LeaveRequest> leaveRequests, LeaveStatus previousStatus) {
+        if (!leaveRequests.isEmpty()) {
+            apply(leaveRequests, previousStatus, leaveRequests.get(0).getStatus());
+        }
+    }
+
+    @Transactional
+    public void recordDeleted(LeaveRequest leaveRequest) {
+        apply(List.of(leaveRequest), leaveRequest.getStatus(), null);
+    }
+
+    @Transactional(readOnly = true)
+    public TeamLeaveSummary getSummary(String reportingOfficer, int year) {
+        return teamLeaveSummaryRepository.findByReportingOfficerAndYear(reportingOfficer, year)
+                .orElseGet(() -> {
+                    TeamLeaveSummary empty = new TeamLeaveSummary();
+                    empty.setReportingOfficer(reportingOfficer);
+                    empty.setYear(year);
+                    return empty;
+                });
+    }
+
+    // Recomputes a year from leave_request; safe to run at any time to repair drift
+    // (e.g. after an employee's reporting officer changed)
+    @Transactional
+    public int rebuild(int year) {
+        teamLeaveSummaryRepository.deleteByYear(year);
+        int rows = teamLeaveSummaryRepository.rebuildYear(year, LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+        logger.info("Rebuilt team leave summary for {}: {} reporting officers", year, rows);
+        return rows;
+    }
+
+    // Invoked through the proxy by the event multicaster, so it runs in its own transaction
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedOnStartup() {
+        if (teamLeaveSummaryRepository.count() == 0) {
+            rebuild(LocalDate.now().getYear());
+        }
+    }
+
+    // A request moving from one status to another (null = did not exist / no longer exists)
+    private void apply(List<LeaveRequest> leaveRequests, LeaveStatus from, LeaveStatus to) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (LeaveRequest leaveRequest : leaveRequests) {
+            String reportingOfficer = leaveRequest.getUserProfile().getReportingOfficer();
+            if (reportingOfficer == null || Objects.equals(from, to)) {
+                continue;
+            }
+            int year = leaveRequest.getStartDate().getYear();
+            Delta delta = deltas.computeIfAbsent(reportingOfficer + '\u0000' + year, k -> new Delta(reportingOfficer, year));
+            delta.count(from, -1);
+            delta.count(to, 1);
+            if (from == LeaveStatus.APPROVED) {
+                delta.days(leaveRequest, -leaveRequest.getTotalDays());
+            }
+            if (to == LeaveStatus.APPROVED) {
+                delta.days(leaveRequest, leaveRequest.getTotalDays());
+            }
+        }
+
+        for (Delta delta : deltas.values()) {
+            teamLeaveSummaryRepository.insertIfAbsent(delta.reportingOfficer, delta.year);
+            teamLeaveSummaryRepository.applyDelta(delta.reportingOfficer, delta.year,
+                    delta.pending, delta.approved, delta.rejected,
+                    delta.casualDays, delta.sickDays, delta.withPayDays, delta.withoutPayDays);
+        }
+    }
+
+    private static final class Delta {
+        private final String reportingOfficer;
+        private final int year;
+        private int pending;
+        private int approved;
+        private int rejected;
+        private int casualDays;
+        private int sickDays;
+        private int withPayDays;
+        private int withoutPayDays;
+
+        private Delta(String reportingOfficer, int year) {
+            this.reportingOfficer = reportingOfficer;
+            this.year = year;
+        }
+
+        private void count(LeaveStatus status, int change) {
+            if (status == null) {
+                return;
+            }
+            switch (status) {
+                case PENDING -> pending += change;
+                case APPROVED -> approved += change;
+                case REJECTED -> rejected += change;
+                default -> { }
+            }
+        }
+
+        private void days(LeaveRequest leaveRequest, int change) {
+            switch (leaveRequest.getLeaveType()) {
+                case CASUAL -> casualDays += change;
+                case SICK -> sickDays += change;
+                case LEAVE_WITH_PAY -> withPayDays += change;
+                case LEAVE_WITHOUT_PAY -> withoutPayDays += change;
+                default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.erp.admin.service;
+
+import java.io.IOException;
+
+// Thrown when an upload exceeds the per-file or per-request cap; mapped to 413 by the controllers
+public class UploadTooLargeException extends IOException {
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,305 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.ImportRowError;
+import com.erp.admin.dto.ProfileImportResult;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk onboarding from CSV. Rows are streamed from the upload, validated one by one, and handled in
+// chunks: one IN query per chunk finds serial numbers that already exist, the rest go in as a single
+// JDBC batch (UserProfile uses IDENTITY, so Hibernate would insert them one statement at a time).
+// Each chunk commits on its own; re-running a partly imported file reports the earlier rows as existing.
+@Service
+public class UserProfileImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileImportService.class);
+
+    // Rows per existence check and per insert batch
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int VARCHAR_LENGTH = 255;
+
+    // CSV header (the JSON property name) -> user_profile column, in insert order. Document paths are
+    // not importable; files still go through /save or a later update.
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("employeeSerialNumber", "employee_serial_number");
+        COLUMNS.put("employeeName", "employee_name");
+        COLUMNS.put("emergencyContactNumber", "emergency_contact_number");
+        COLUMNS.put("address", "address");
+        COLUMNS.put("emailAddress", "email_address");
+        COLUMNS.put("qualification", "qualification");
+        COLUMNS.put("dateOfJoining", "date_of_joining");
+        COLUMNS.put("designation", "designation");
+        COLUMNS.put("department", "department");
+        COLUMNS.put("reportingOfficer", "reporting_officer");
+        COLUMNS.put("grossSalary", "gross_salary");
+        COLUMNS.put("bankAccountNumber", "bank_account_number");
+        COLUMNS.put("ifscCode", "ifsc_code");
+        COLUMNS.put("bankName", "bank_name");
+        COLUMNS.put("medicalBackground", "medical_background");
+        COLUMNS.put("legalBackground", "legal_background");
+        COLUMNS.put("pan", "pan");
+        COLUMNS.put("adhaar", "adhaar");
+        COLUMNS.put("personalFileNumber", "personal_file_number");
+        COLUMNS.put("status", "status");
+    }
+
+    private static final Map<String, Integer> MAX_LENGTHS = Map.of("pan", 10, "adhaar", 12, "status", 1);
+    private static final Set<String> TEXT_COLUMNS = Set.of("address", "medicalBackground", "legalBackground");
+
+    private static final String INSERT_SQL = "INSERT INTO user_profile (" + String.join(", ", COLUMNS.values())
+            + ") VALUES (" + String.join(", ", Collections.nCopies(COLUMNS.size(), "?")) + ")";
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private record ImportRow(long row, String employeeSerialNumber, Object[] values) {
+    }
+
+    // Header problems and malformed CSV are reported as IllegalArgumentException (nothing row-specific to report)
+    public ProfileImportResult importCsv(InputStream csv) throws IOException {
+        try (CSVParser parser = CSVParser.parse(new InputStreamReader(csv, StandardCharsets.UTF_8), FORMAT)) {
+            Map<String, String> headerToProperty = resolveHeader(parser.getHeaderNames());
+
+            List<ImportRowError> errors = new ArrayList<>();
+            Set<String> seenInFile = new HashSet<>();
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            long rows = 0;
+            int imported = 0;
+            try {
+                for (CSVRecord record : parser) {
+                    rows++;
+                    ImportRow row;
+                    try {
+                        row = parseRow(rows, record, headerToProperty);
+                    } catch (IllegalArgumentException e) {
+                        errors.add(new ImportRowError(rows, serialNumberOf(record, headerToProperty), e.getMessage()));
+                        continue;
+                    }
+                    if (!seenInFile.add(row.employeeSerialNumber())) {
+                        errors.add(new ImportRowError(rows, row.employeeSerialNumber(), "Duplicate Employee Serial Number in file"));
+                        continue;
+                    }
+                    chunk.add(row);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        imported += insertChunk(chunk, errors);
+                        chunk.clear();
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw new IllegalArgumentException("Malformed CSV after row " + rows + " (" + imported
+                        + " rows already imported): " + e.getCause().getMessage(), e);
+            }
+            if (!chunk.isEmpty()) {
+                imported += insertChunk(chunk, errors);
+            }
+
+            // Same as /save does per profile: new joiners get this year's balance right away
+            if (imported > 0) {
+                leaveService.provisionLeaveBalances(LocalDate.now().getYear());
+                // The batch inserts do not return ids, so the search index is rebuilt rather than patched
+                employeeSearchIndex.load();
+            }
+
+            errors.sort(Comparator.comparingLong(ImportRowError::row));
+            logger.info("Imported {} of {} user profile rows, {} rejected", imported, rows, errors.size());
+            return ProfileImportResult.of(rows, imported, errors);
+        }
+    }
+
+    // Header names are matched like the JSON properties, ignoring case, '_', '-' and spaces
+    private Map<String, String> resolveHeader(List<String> headerNames) {
+        Map<String, String> propertiesByKey = new LinkedHashMap<>();
+        COLUMNS.keySet().forEach(property -> propertiesByKey.put(headerKey(property), property));
+
+        Map<String, String> headerToProperty = new LinkedHashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String header : headerNames) {
+            String property = propertiesByKey.get(headerKey(header));
+            if (property == null) {
+                unknown.add(header);
+            } else if (headerToProperty.containsValue(property)) {
+                throw new IllegalArgumentException("Column " + property + " appears more than once in the header");
+            } else {
+                headerToProperty.put(header, property);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown columns " + unknown + "; expected any of " + COLUMNS.keySet());
+        }
+        if (!headerToProperty.containsValue("employeeSerialNumber") || !headerToProperty.containsValue("employeeName")) {
+            throw new IllegalArgumentException("Header must contain employeeSerialNumber and employeeName");
+        }
+        return headerToProperty;
+    }
+
+    private static String headerKey(String header) {
+        return header.replace("\uFEFF", "").replaceAll("[_\\-\\s]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private ImportRow parseRow(long rowNumber, CSVRecord record, Map<String, String> headerToProperty) {
+        if (!record.isConsistent()) {
+            throw new IllegalArgumentException("Expected " + headerToProperty.size() + " fields, found " + record.size());
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        headerToProperty.forEach((header, property) -> {
+            String value = record.get(header);
+            values.put(property, value == null || value.isEmpty() ? null : value);
+        });
+
+        String employeeSerialNumber = values.get("employeeSerialNumber");
+        if (employeeSerialNumber == null) {
+            throw new IllegalArgumentException("employeeSerialNumber is required");
+        }
+        if (values.get("employeeName") == null) {
+            throw new IllegalArgumentException("employeeName is required");
+        }
+
+        Object[] args = new Object[COLUMNS.size()];
+        int i = 0;
+        for (String property : COLUMNS.keySet()) {
+            args[i++] = convert(property, values.get(property));
+        }
+        return new ImportRow(rowNumber, employeeSerialNumber, args);
+    }
+
+    private Object convert(String property, String value) {
+        if ("status".equals(property) && value == null) {
+            return "N";
+        }
+        if (value == null) {
+            return null;
+        }
+        switch (property) {
+            case "dateOfJoining":
+                try {
+                    return LocalDate.parse(value);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("dateOfJoining must be yyyy-MM-dd: " + value);
+                }
+            case "grossSalary":
+                try {
+                    BigDecimal salary = new BigDecimal(value).setScale(2, RoundingMode.UNNECESSARY);
+                    if (salary.precision() > 15) {
+                        throw new IllegalArgumentException("grossSalary is too large: " + value);
+                    }
+                    return salary;
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IllegalArgumentException("grossSalary must be a number with at most 2 decimals: " + value);
+                }
+            default:
+                int maxLength = MAX_LENGTHS.getOrDefault(property, VARCHAR_LENGTH);
+                if (!TEXT_COLUMNS.contains(property) && value.length() > maxLength) {
+                    throw new IllegalArgumentException(property + " is longer than " + maxLength + " characters");
+                }
+                return value;
+        }
+    }
+
+    private String serialNumberOf(CSVRecord record, Map<String, String> headerToProperty) {
+        for (Map.Entry<String, String> entry : headerToProperty.entrySet()) {
+            if ("employeeSerialNumber".equals(entry.getValue()) && record.isSet(entry.getKey())) {
+                String value = record.get(entry.getKey());
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    // Only brand-new rows are written, so no cached profile, natural id or query result can be stale
+    private int insertChunk(List<ImportRow> chunk, List<ImportRowError> errors) {
+        List<String> serialNumbers = chunk.stream().map(ImportRow::employeeSerialNumber).toList();
+        Set<String> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT employee_serial_number FROM user_profile WHERE employee_serial_number IN (:serialNumbers)",
+                Map.of("serialNumbers", serialNumbers), String.class));
+
+        List<ImportRow> fresh = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.contains(row.employeeSerialNumber())) {
+                errors.add(new ImportRowError(row.row(), row.employeeSerialNumber(), "Employee Serial Number already exists"));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, fresh.stream().map(ImportRow::values).toList()));
+            return fresh.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent create (or a serial number differing only in case) got in between the check and
+            // the batch; the chunk was rolled back, so retry it row by row and report just the offenders
+            logger.warn("Batch insert of {} profiles failed, retrying row by row: {}", fresh.size(),
+                    e.getMostSpecificCause().getMessage());
+            return insertRowByRow(fresh, errors);
+        }
+    }
+
+    private int insertRowByRow(List<ImportRow> rows, List<ImportRowError> errors) {
+        int inserted = 0;
+        for (ImportRow row : rows) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, row.values());
+                inserted++;
+            } catch (DuplicateKeyException e) {
+                errors.add(new ImportRowError(row.row(), row.employeeSerialNumber(), "Employee Serial Number already exists"));
+            } catch (DataIntegrityViolationException e) {
+                errors.add(new ImportRowError(row.row(), row.employeeSerialNumber(),
+                        "Rejected by the database: " + e.getMostSpecificCause().getMessage()));
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,213 @@
+package com.erp.admin.service;
+
+import com.erp.admin.dto.UserProfileSummary;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.repository.UserProfileRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+// JSON Merge Patch (RFC 7396) for user profiles: members present in the patch are set, null clears a column,
+// absent members are left alone. Only the patched columns are read (locked FOR UPDATE, to tell which values
+// really change) and only the changed ones are written, so TEXT columns outside the patch are never loaded
+// or rewritten. The write bypasses Hibernate; the cached profile is evicted once it commits.
+@Service
+public class UserProfilePatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfilePatchService.class);
+
+    private static final int VARCHAR_LENGTH = 255;
+
+    // JSON property -> user_profile column. The serial number is the natural id and document paths belong
+    // to the upload endpoints, so neither can be patched.
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("employeeName", "employee_name");
+        COLUMNS.put("emergencyContactNumber", "emergency_contact_number");
+        COLUMNS.put("address", "address");
+        COLUMNS.put("emailAddress", "email_address");
+        COLUMNS.put("qualification", "qualification");
+        COLUMNS.put("dateOfJoining", "date_of_joining");
+        COLUMNS.put("designation", "designation");
+        COLUMNS.put("department", "department");
+        COLUMNS.put("reportingOfficer", "reporting_officer");
+        COLUMNS.put("grossSalary", "gross_salary");
+        COLUMNS.put("bankAccountNumber", "bank_account_number");
+        COLUMNS.put("ifscCode", "ifsc_code");
+        COLUMNS.put("bankName", "bank_name");
+        COLUMNS.put("medicalBackground", "medical_background");
+        COLUMNS.put("legalBackground", "legal_background");
+        COLUMNS.put("pan", "pan");
+        COLUMNS.put("adhaar", "adhaar");
+        COLUMNS.put("personalFileNumber", "personal_file_number");
+        COLUMNS.put("status", "status");
+    }
+
+    private static final Map<String, Integer> MAX_LENGTHS = Map.of("pan", 10, "adhaar", 12);
+    private static final Set<String> TEXT_COLUMNS = Set.of("address", "medicalBackground", "legalBackground");
+    private static final Set<String> NOT_NULL = Set.of("employeeName", "status");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Empty when the profile does not exist; an invalid patch is an IllegalArgumentException and changes nothing
+    @Transactional
+    public Optional<UserProfileSummary> patch(Long srNo, JsonNode patch) {
+        Map<String, Object> values = parse(patch);
+        if (values.isEmpty()) {
+            return userProfileRepository.findSummaryBySrNo(srNo);
+        }
+
+        List<String> columns = values.keySet().stream().map(COLUMNS::get).toList();
+        List<Map<String, Object>> current = jdbcTemplate.query("SELECT " + String.join(", ", columns) +
+                        " FROM user_profile WHERE sr_no = ? FOR UPDATE",
+                (rs, rowNum) -> read(rs, values.keySet()), srNo);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> changed = new LinkedHashMap<>();
+        values.forEach((property, value) -> {
+            if (!sameValue(current.get(0).get(property), value)) {
+                changed.put(property, value);
+            }
+        });
+        if (!changed.isEmpty()) {
+            List<String> assignments = new ArrayList<>(changed.size());
+            List<Object> args = new ArrayList<>(changed.size() + 1);
+            changed.forEach((property, value) -> {
+                assignments.add(COLUMNS.get(property) + " = ?");
+                args.add(value);
+            });
+            args.add(srNo);
+            jdbcTemplate.update("UPDATE user_profile SET " + String.join(", ", assignments) + " WHERE sr_no = ?",
+                    args.toArray());
+            // Written behind Hibernate's back - drop the cached copy once the new values are visible
+            AfterCommit.run(() -> entityManagerFactory.getCache().evict(UserProfile.class, srNo));
+            logger.info("Patched user profile Sr. No: {}, columns: {}", srNo, changed.keySet());
+        }
+
+        Optional<UserProfileSummary> summary = userProfileRepository.findSummaryBySrNo(srNo);
+        if (!changed.isEmpty()) {
+            summary.ifPresent(employeeSearchIndex::onSaved);
+        }
+        if (changed.containsKey("employeeName") || changed.containsKey("department")) {
+            summary.ifPresent(saved -> leaveCalendarIndex.onProfileChanged(saved.getEmployeeSerialNumber(),
+                    saved.getEmployeeName(), saved.getDepartment()));
+        }
+        return summary;
+    }
+
+    private Map<String, Object> parse(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String property = field.getKey();
+            if (!COLUMNS.containsKey(property)) {
+                throw new IllegalArgumentException(property + " cannot be patched; expected any of " + COLUMNS.keySet());
+            }
+            values.put(property, convert(property, field.getValue()));
+        }
+        return values;
+    }
+
+    private Object convert(String property, JsonNode node) {
+        if (node.isNull()) {
+            if (NOT_NULL.contains(property)) {
+                throw new IllegalArgumentException(property + " cannot be null");
+            }
+            return null;
+        }
+        if (!node.isValueNode()) {
+            throw new IllegalArgumentException(property + " must be a single value");
+        }
+        String value = node.asText();
+        switch (property) {
+            case "dateOfJoining":
+                try {
+                    return LocalDate.parse(value);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("dateOfJoining must be yyyy-MM-dd: " + value);
+                }
+            case "grossSalary":
+                try {
+                    BigDecimal salary = (node.isNumber() ? node.decimalValue() : new BigDecimal(value))
+                            .setScale(2, RoundingMode.UNNECESSARY);
+                    if (salary.precision() > 15) {
+                        throw new IllegalArgumentException("grossSalary is too large: " + value);
+                    }
+                    return salary;
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IllegalArgumentException("grossSalary must be a number with at most 2 decimals: " + value);
+                }
+            case "status":
+                if (value.length() != 1) {
+                    throw new IllegalArgumentException("status must be a single character: " + value);
+                }
+                return value;
+            default:
+                int maxLength = MAX_LENGTHS.getOrDefault(property, VARCHAR_LENGTH);
+                if (!TEXT_COLUMNS.contains(property) && value.length() > maxLength) {
+                    throw new IllegalArgumentException(property + " is longer than " + maxLength + " characters");
+                }
+                return value;
+        }
+    }
+
+    private Map<String, Object> read(ResultSet rs, Set<String> properties) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String property : properties) {
+            String column = COLUMNS.get(property);
+            row.put(property, switch (property) {
+                case "dateOfJoining" -> rs.getObject(column, LocalDate.class);
+                case "grossSalary" -> rs.getBigDecimal(column);
+                default -> rs.getString(column);
+            });
+        }
+        return row;
+    }
+
+    private boolean sameValue(Object current, Object patched) {
+        if (current instanceof BigDecimal currentSalary && patched instanceof BigDecimal patchedSalary) {
+            return currentSalary.compareTo(patchedSalary) == 0;
+        }
+        return Objects.equals(current, patched);
+    }
+}
@@ -0,0 +1,87 @@
+-- Baseline: the schema as previously created by hibernate.ddl-auto=update, before any of the later
+-- migrations (photos still inline in user_profile.photo).
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table user_profile (
+    date_of_joining date,
+    gross_salary decimal(15,2),
+    status char(1) not null,
+    sr_no bigint not null auto_increment,
+    pan varchar(10),
+    adhaar varchar(12),
+    address TEXT,
+    adhaar_file_path varchar(255),
+    bank_account_number varchar(255),
+    bank_name varchar(255),
+    department varchar(255),
+    designation varchar(255),
+    email_address varchar(255),
+    emergency_contact_number varchar(255),
+    employee_name varchar(255) not null,
+    employee_serial_number varchar(255) not null,
+    ifsc_code varchar(255),
+    pan_file_path varchar(255),
+    passbook_file_path varchar(255),
+    personal_file_number varchar(255),
+    qualification varchar(255),
+    reporting_officer varchar(255),
+    legal_background TEXT,
+    medical_background TEXT,
+    photo MEDIUMBLOB,
+    primary key (sr_no)
+) engine=InnoDB;
+
+create table company_holidays (
+    holiday_date date not null,
+    is_optional bit,
+    status char(1) not null,
+    year integer,
+    holiday_id bigint not null auto_increment,
+    description TEXT,
+    holiday_name varchar(255) not null,
+    holiday_type varchar(255),
+    primary key (holiday_id)
+) engine=InnoDB;
+
+create table leave_balance (
+    casual_leave_balance integer,
+    created_date date,
+    leave_with_pay_balance integer,
+    leave_without_pay_balance integer,
+    sick_leave_balance integer,
+    updated_date date,
+    year integer,
+    balance_id bigint not null auto_increment,
+    employee_serial_number varchar(255),
+    primary key (balance_id)
+) engine=InnoDB;
+
+create table leave_request (
+    applied_date date,
+    approved_date date,
+    end_date date not null,
+    start_date date not null,
+    total_days integer not null,
+    request_id bigint not null auto_increment,
+    approved_by varchar(255),
+    emergency_contact_during_leave varchar(255),
+    employee_serial_number varchar(255),
+    reason TEXT,
+    rejection_reason TEXT,
+    leave_type enum ('CASUAL','HOLIDAY','LEAVE_WITHOUT_PAY','LEAVE_WITH_PAY','SICK') not null,
+    status enum ('APPROVED','CANCELLED','PENDING','REJECTED') not null,
+    primary key (request_id)
+) engine=InnoDB;
+
+alter table user_profile
+    add constraint UK6i4vft29uqbh8mpenyj2ym1js unique (employee_serial_number);
+
+alter table leave_balance
+    add constraint FKipe41fiv8djistuqsinvbcpr0
+    foreign key (employee_serial_number)
+    references user_profile (employee_serial_number);
+
+alter table leave_request
+    add constraint FKjebngh9a4h46y378mko562clb
+    foreign key (employee_serial_number)
+    references user_profile (employee_serial_number);
@@ -0,0 +1,36 @@
+-- Schema added on top of the baseline before the query indexes: the photo path for the file store
+-- (the inline photo column stays until LegacyPhotoMigration has emptied it), one balance per employee
+-- and year for the INSERT IGNORE provisioning, and the per-officer team leave summary.
+
+alter table user_profile
+    add column photo_file_path varchar(255);
+
+-- Duplicate balances created by the old read-or-create path: keep the oldest row of each employee and year
+delete from leave_balance
+where balance_id not in (
+    select keep_id from (
+        select min(balance_id) as keep_id
+        from leave_balance
+        group by employee_serial_number, year
+    ) as kept
+);
+
+alter table leave_balance
+    add constraint uk_leave_balance_employee_year unique (employee_serial_number, year);
+
+create table team_leave_summary (
+    approved_count integer not null,
+    casual_days_used integer not null,
+    leave_with_pay_days_used integer not null,
+    leave_without_pay_days_used integer not null,
+    pending_count integer not null,
+    rejected_count integer not null,
+    sick_days_used integer not null,
+    year integer not null,
+    summary_id bigint not null auto_increment,
+    reporting_officer varchar(255) not null,
+    primary key (summary_id)
+) engine=InnoDB;
+
+alter table team_leave_summary
+    add constraint uk_team_leave_summary_officer_year unique (reporting_officer, year);
@@ -0,0 +1,26 @@
+-- Composite indexes for the leave queries. leave_balance(employee_serial_number, year) is already
+-- covered by uk_leave_balance_employee_year.
+
+-- findOverlappingLeaves, findApprovedLeavesByTypeAndYear, findHistoryViews, team views (join side)
+create index idx_leave_request_employee_status_dates
+    on leave_request (employee_serial_number, status, start_date, end_date);
+
+-- findViewsByStatus / findByStatusOrderByAppliedDateDesc
+create index idx_leave_request_status_applied
+    on leave_request (status, applied_date);
+
+-- Approved leaves in a date window (calendar and its index load)
+create index idx_leave_request_status_dates
+    on leave_request (status, start_date, end_date);
+
+-- findHolidaysInRange, existsByHolidayDateAndStatus
+create index idx_company_holidays_date_status
+    on company_holidays (holiday_date, status);
+
+-- Team views: employees by reporting officer
+create index idx_user_profile_reporting_officer
+    on user_profile (reporting_officer);
+
+-- findByYearAndStatusOrderByHolidayDate (holidays of a year)
+create index idx_company_holidays_year_status
+    on company_holidays (year, status);
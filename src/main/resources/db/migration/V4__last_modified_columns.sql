@@ -0,0 +1,11 @@
+-- Row change timestamps for conditional GETs (ETag / Last-Modified). Maintained by the database on
+-- every insert and update, so JPQL bulk updates and native statements are covered as well.
+
+alter table leave_request
+    add column last_modified datetime(6) not null default current_timestamp(6) on update current_timestamp(6);
+
+alter table leave_balance
+    add column last_modified datetime(6) not null default current_timestamp(6) on update current_timestamp(6);
+
+alter table company_holidays
+    add column last_modified datetime(6) not null default current_timestamp(6) on update current_timestamp(6);
@@ -0,0 +1,8 @@
+-- Optimistic-lock versions (@Version) for leave requests and balances. Existing rows start at 0;
+-- the bulk balance updates in LeaveBalanceRepository increment the column themselves.
+
+alter table leave_request
+    add column version bigint not null default 0;
+
+alter table leave_balance
+    add column version bigint not null default 0;
@@ -0,0 +1,18 @@
+-- Idempotency-Key claims and recorded responses, used when idempotency.store=jdbc. A row is inserted
+-- (status_code null) when a request claims the key and completed with the response; request_hash binds
+-- the key to that request. Rows past expires_at (a completed row's TTL, or a pending claim whose
+-- idempotency.pending-timeout ran out) are replaced on the next claim and deleted by
+-- JdbcIdempotencyStore.purgeExpired.
+
+create table idempotency_key (
+    idempotency_key varchar(255) not null,
+    request_hash varchar(64) not null,
+    status_code integer,
+    content_type varchar(255),
+    response_body mediumblob,
+    created_at datetime(6) not null default current_timestamp(6),
+    expires_at datetime(6) not null,
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+create index idx_idempotency_key_expires_at on idempotency_key (expires_at);
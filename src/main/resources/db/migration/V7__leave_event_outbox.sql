@@ -0,0 +1,22 @@
+-- Transactional outbox for leave lifecycle events. LeaveEventOutbox inserts a row in the same transaction
+-- as the leave change; LeaveEventDispatcher claims pending rows (claim_token, available_at as the lease),
+-- delivers them to the LeaveEventHandler beans and sets dispatched_at. Failed deliveries are retried from
+-- available_at with backoff until failed_at is set. Dispatched rows are purged after the retention period.
+
+create table leave_event_outbox (
+    event_id bigint not null auto_increment,
+    event_type varchar(32) not null,
+    request_id bigint not null,
+    payload TEXT not null,
+    created_at datetime(6) not null,
+    available_at datetime(6) not null,
+    attempts integer not null default 0,
+    claim_token varchar(36),
+    last_error varchar(1000),
+    dispatched_at datetime(6),
+    failed_at datetime(6),
+    primary key (event_id)
+) engine=InnoDB;
+
+-- Dispatcher poll: undispatched rows that are due
+create index idx_leave_event_outbox_pending on leave_event_outbox (dispatched_at, available_at);
@@ -0,0 +1,158 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.dto.EmployeeSearchHit;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.repository.UserProfileRepository;
+import com.erp.admin.service.EmployeeSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserProfilePatchTest {
+
+    private static final String MERGE_PATCH = "application/merge-patch+json";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Spied to see which statements the patch issues; it still runs them
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private Long srNo;
+
+    @BeforeEach
+    void setUp() {
+        UserProfile user = new UserProfile();
+        user.setEmployeeSerialNumber("PATCH-001");
+        user.setEmployeeName("Original Name");
+        user.setDesignation("Clerk");
+        user.setAddress("12 Old Street");
+        user.setStatus('Y');
+        user = userProfileRepository.save(user);
+        srNo = user.getSrNo();
+        employeeSearchIndex.onSaved(user);
+        clearInvocations(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userProfileRepository.deleteAll();
+    }
+
+    @Test
+    void nullClearsANullableColumn() throws Exception {
+        patchProfile("{\"designation\": null, \"address\": null}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.designation").isEmpty());
+
+        UserProfile user = userProfileRepository.findById(srNo).orElseThrow();
+        assertNull(user.getDesignation());
+        assertNull(user.getAddress());
+        assertEquals("Original Name", user.getEmployeeName());
+    }
+
+    @Test
+    void nullOnARequiredColumnIsRejected() throws Exception {
+        patchProfile("{\"employeeName\": null}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("employeeName cannot be null"));
+        patchProfile("{\"designation\": \"Manager\", \"status\": null}")
+                .andExpect(status().isBadRequest());
+
+        // A rejected patch changes nothing, not even its valid members
+        UserProfile user = userProfileRepository.findById(srNo).orElseThrow();
+        assertEquals("Original Name", user.getEmployeeName());
+        assertEquals("Clerk", user.getDesignation());
+        assertEquals('Y', user.getStatus());
+    }
+
+    @Test
+    void unknownMembersAreRejected() throws Exception {
+        patchProfile("{\"salary\": 1000}")
+                .andExpect(status().isBadRequest());
+        // The natural id and document paths are known properties, but not patchable
+        patchProfile("{\"employeeSerialNumber\": \"PATCH-002\"}")
+                .andExpect(status().isBadRequest());
+        patchProfile("{\"panFilePath\": \"/tmp/pan.pdf\"}")
+                .andExpect(status().isBadRequest());
+
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE user_profile"), any(Object[].class));
+    }
+
+    @Test
+    void unchangedValuesIssueNoUpdate() throws Exception {
+        patchProfile("{\"employeeName\": \"Original Name\", \"designation\": \"Clerk\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employeeName").value("Original Name"));
+
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE user_profile"), any(Object[].class));
+    }
+
+    @Test
+    void cacheAndSearchIndexSeeThePatchAfterCommit() throws Exception {
+        // Loaded once so the profile sits in the second-level cache
+        userProfileRepository.findById(srNo).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(UserProfile.class, srNo));
+
+        patchProfile("{\"employeeName\": \"Zephyrine Quillon\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employeeName").value("Zephyrine Quillon"));
+
+        assertFalse(entityManagerFactory.getCache().contains(UserProfile.class, srNo));
+        assertEquals("Zephyrine Quillon", userProfileRepository.findById(srNo).orElseThrow().getEmployeeName());
+
+        assertTrue(employeeSearchIndex.search("Zephyrine", 10).stream()
+                .map(EmployeeSearchHit::srNo)
+                .anyMatch(srNo::equals));
+        assertFalse(employeeSearchIndex.search("Original Name", 10).stream()
+                .map(EmployeeSearchHit::srNo)
+                .anyMatch(srNo::equals));
+    }
+
+    @Test
+    void unknownProfileIsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/user-profiles/{id}", srNo + 1000)
+                        .contentType(MERGE_PATCH)
+                        .content("{\"designation\": \"Manager\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions patchProfile(String body) throws Exception {
+        return mockMvc.perform(patch("/api/user-profiles/{id}", srNo)
+                .contentType(MERGE_PATCH)
+                .content(body));
+    }
+}
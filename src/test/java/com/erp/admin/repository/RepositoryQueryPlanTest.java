@@ -0,0 +1,182 @@
+package com.erp.admin.repository;
+
+import com.erp.admin.model.LeaveStatus;
+import com.erp.admin.model.LeaveType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every query method declared on the repositories against the migrated schema, captures the SQL
+// Hibernate sends, and fails if H2's EXPLAIN shows a full table scan. Guards the indexes in db/migration.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.erp.admin.repository.RepositoryQueryPlanTest$SqlCapture")
+class RepositoryQueryPlanTest {
+
+    // Scans that are intended, per method: the table it may scan and why
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            // yearly provisioning visits every employee by design
+            "provisionBalancesForYear", "user_profile",
+            // full-year recomputation, an admin repair job
+            "rebuildYear", "leave_request",
+            // one row per reporting officer; admin repair job
+            "deleteByYear", "team_leave_summary");
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private CompanyHolidayRepository companyHolidayRepository;
+
+    @Autowired
+    private TeamLeaveSummaryRepository teamLeaveSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        List<String> failures = new ArrayList<>();
+        int checked = 0;
+        checked += check(UserProfileRepository.class, userProfileRepository, failures);
+        checked += check(LeaveRequestRepository.class, leaveRequestRepository, failures);
+        checked += check(LeaveBalanceRepository.class, leaveBalanceRepository, failures);
+        checked += check(CompanyHolidayRepository.class, companyHolidayRepository, failures);
+        checked += check(TeamLeaveSummaryRepository.class, teamLeaveSummaryRepository, failures);
+
+        assertTrue(checked > 0, "No SQL captured");
+        assertTrue(failures.isEmpty(), "Full table scans:\n" + String.join("\n", failures));
+    }
+
+    private int check(Class<?> repositoryType, Object repository, List<String> failures) {
+        int checked = 0;
+        for (Method method : repositoryType.getDeclaredMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            List<String> statements = capture(repository, method);
+            assertFalse(statements.isEmpty(), "No SQL captured for " + method.getName());
+            for (String sql : statements) {
+                Set<String> scanned = scannedTables(sql);
+                scanned.remove(ALLOWED_SCANS.getOrDefault(method.getName(), ""));
+                if (!scanned.isEmpty()) {
+                    failures.add(repositoryType.getSimpleName() + "." + method.getName() + " scans " + scanned + ": " + sql);
+                }
+                checked++;
+            }
+        }
+        return checked;
+    }
+
+    // Invokes the method with sample arguments in a rolled-back transaction and returns the SQL it issued
+    private List<String> capture(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            SqlCapture.STATEMENTS.clear();
+            try {
+                method.invoke(repository, sampleArguments(method));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not invoke " + method.getName(), e);
+            }
+            return new ArrayList<>(SqlCapture.STATEMENTS);
+        });
+    }
+
+    private Set<String> scannedTables(String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        Set<String> tables = new TreeSet<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase());
+        }
+        return tables;
+    }
+
+    private Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(types[i], genericTypes[i]);
+        }
+        return args;
+    }
+
+    private Object sampleValue(Class<?> type, Type genericType) {
+        if (type == String.class) {
+            return "EMP-001";
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 2026;
+        }
+        if (type == Character.class || type == char.class) {
+            return 'A';
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.of(2026, 1, 1);
+        }
+        if (type == LeaveStatus.class) {
+            return LeaveStatus.APPROVED;
+        }
+        if (type == LeaveType.class) {
+            return LeaveType.CASUAL;
+        }
+        if (type == Limit.class) {
+            return Limit.of(10);
+        }
+        if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterized) {
+            Type element = parameterized.getActualTypeArguments()[0];
+            return List.of(sampleValue((Class<?>) element, element));
+        }
+        throw new IllegalArgumentException("No sample value for parameter type " + genericType);
+    }
+
+    // Registered through hibernate.session_factory.statement_inspector; records SQL without changing it
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.erp.admin.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Runs against the default in-memory store; JdbcIdempotencyServiceTest repeats it on the idempotency_key table
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "leave-apply";
+    private static final int THREADS = 8;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String key = UUID.randomUUID().toString();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_key");
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheHandlerOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute(SCOPE, key, request("{\"days\":1}"), () -> {
+                    runs.incrementAndGet();
+                    sleep(200);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("requestId", 42));
+                });
+            }));
+        }
+        start.countDown();
+
+        int replayed = 0;
+        for (Future<ResponseEntity<?>> result : results) {
+            ResponseEntity<?> response = result.get(60, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.CREATED.value(), response.getStatusCode().value());
+            if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, runs.get());
+        assertEquals(THREADS - 1, replayed);
+    }
+
+    @Test
+    void serverErrorsAreNotRecorded() {
+        assertNotRecorded(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void rateLimitRefusalsAreNotRecorded() {
+        assertNotRecorded(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void reusingTheKeyForADifferentRequestIsRefused() {
+        idempotencyService.execute(SCOPE, key, request("{\"days\":1}"),
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("requestId", 42)));
+
+        ResponseEntity<?> response = idempotencyService.execute(SCOPE, key, request("{\"days\":2}"),
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("requestId", 43)));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), response.getStatusCode().value());
+    }
+
+    // The refused attempt leaves the key free: the retry runs the handler, and its success is what gets replayed
+    private void assertNotRecorded(HttpStatus failure) {
+        AtomicInteger runs = new AtomicInteger();
+        ResponseEntity<?> first = idempotencyService.execute(SCOPE, key, request("{\"days\":1}"), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(failure).body(Map.of("error", failure.getReasonPhrase()));
+        });
+        assertEquals(failure.value(), first.getStatusCode().value());
+
+        ResponseEntity<?> retry = idempotencyService.execute(SCOPE, key, request("{\"days\":1}"), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("requestId", 42));
+        });
+        assertEquals(HttpStatus.CREATED.value(), retry.getStatusCode().value());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+
+        ResponseEntity<?> repeat = idempotencyService.execute(SCOPE, key, request("{\"days\":1}"), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(failure).build();
+        });
+        assertEquals(HttpStatus.CREATED.value(), repeat.getStatusCode().value());
+        assertEquals("true", repeat.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+    }
+
+    private static RequestFingerprint request(String body) {
+        return RequestFingerprint.of(new MockHttpServletRequest("POST", "/api/leave/apply")).text(body);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.erp.admin.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// The IdempotencyServiceTest cases against the shared idempotency_key table
+@SpringBootTest(properties = "idempotency.store=jdbc")
+class JdbcIdempotencyServiceTest extends IdempotencyServiceTest {
+}
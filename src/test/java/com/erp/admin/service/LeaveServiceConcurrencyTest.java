@@ -0,0 +1,219 @@
+package com.erp.admin.service;
+
+import com.erp.admin.model.LeaveBalance;
+import com.erp.admin.model.LeaveRequest;
+import com.erp.admin.model.LeaveStatus;
+import com.erp.admin.model.LeaveType;
+import com.erp.admin.model.TeamLeaveSummary;
+import com.erp.admin.model.UserProfile;
+import com.erp.admin.repository.LeaveBalanceRepository;
+import com.erp.admin.repository.LeaveRequestRepository;
+import com.erp.admin.repository.TeamLeaveSummaryRepository;
+import com.erp.admin.repository.UserProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest
+class LeaveServiceConcurrencyTest {
+
+    private static final String EMPLOYEE = "CONC-001";
+    private static final String OFFICER = "MGR-001";
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 30;
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private TeamLeaveSummaryRepository teamLeaveSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> requestIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UserProfile user = new UserProfile();
+        user.setEmployeeSerialNumber(EMPLOYEE);
+        user.setEmployeeName("Concurrency Test");
+        user.setReportingOfficer(OFFICER);
+        user = userProfileRepository.save(user);
+
+        LeaveBalance balance = new LeaveBalance();
+        balance.setUserProfile(user);
+        balance.setYear(LocalDate.now().getYear());
+        leaveBalanceRepository.save(balance);
+
+        // One-day casual requests on working days, more than the 12-day allowance can cover. Applied through
+        // the service so the team summary counts them as pending, as it would in production.
+        LocalDate day = LocalDate.now().withDayOfYear(1);
+        while (requestIds.size() < REQUESTS) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                UserProfile applicant = new UserProfile();
+                applicant.setEmployeeSerialNumber(EMPLOYEE);
+                LeaveRequest request = new LeaveRequest();
+                request.setUserProfile(applicant);
+                request.setLeaveType(LeaveType.CASUAL);
+                request.setStartDate(day);
+                request.setEndDate(day);
+                requestIds.add(leaveService.applyLeave(request).getRequestId());
+            }
+            day = day.plusDays(1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        teamLeaveSummaryRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM leave_event_outbox");
+        leaveRequestRepository.deleteAll();
+        leaveBalanceRepository.deleteAll();
+        userProfileRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentApprovalsNeverOverdrawBalance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Long requestId : requestIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    leaveService.approveLeave(requestId, "MANAGER");
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS)) {
+                approved++;
+            }
+        }
+        executor.shutdown();
+
+        LeaveBalance balance = leaveBalanceRepository
+                .findByUserProfile_EmployeeSerialNumberAndYear(EMPLOYEE, LocalDate.now().getYear())
+                .orElseThrow();
+        long approvedInDb = leaveRequestRepository
+                .findByUserProfile_EmployeeSerialNumberAndStatus(EMPLOYEE, LeaveStatus.APPROVED).size();
+
+        assertEquals(12, approved);
+        assertEquals(12, approvedInDb);
+        assertEquals(0, balance.getCasualLeaveBalance());
+
+        TeamLeaveSummary summary = teamLeaveSummaryRepository
+                .findByReportingOfficerAndYear(OFFICER, LocalDate.now().getYear())
+                .orElseThrow();
+        assertEquals(12, summary.getApprovedCount());
+        assertEquals(12, summary.getCasualDaysUsed());
+        assertEquals(REQUESTS - 12, summary.getPendingCount());
+
+        // Approvals the balance could not cover stay pending; once they are rejected nothing is left pending
+        for (LeaveRequest request : leaveRequestRepository
+                .findByUserProfile_EmployeeSerialNumberAndStatus(EMPLOYEE, LeaveStatus.PENDING)) {
+            leaveService.rejectLeave(request.getRequestId(), "Insufficient balance");
+        }
+        summary = teamLeaveSummaryRepository
+                .findByReportingOfficerAndYear(OFFICER, LocalDate.now().getYear())
+                .orElseThrow();
+        assertEquals(0, summary.getPendingCount());
+        assertEquals(REQUESTS - 12, summary.getRejectedCount());
+    }
+
+    @Test
+    void racingApproveAndRejectLetExactlyOneDecisionWin() throws Exception {
+        List<Long> contested = requestIds.subList(0, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Exception>> approvals = new ArrayList<>();
+        List<Future<Exception>> rejections = new ArrayList<>();
+        for (Long requestId : contested) {
+            approvals.add(executor.submit(() -> {
+                start.await();
+                try {
+                    leaveService.approveLeave(requestId, "MANAGER");
+                    return null;
+                } catch (Exception e) {
+                    return e;
+                }
+            }));
+            rejections.add(executor.submit(() -> {
+                start.await();
+                try {
+                    leaveService.rejectLeave(requestId, "Team is short-staffed");
+                    return null;
+                } catch (Exception e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+
+        int approved = 0;
+        for (int i = 0; i < contested.size(); i++) {
+            Exception approveFailure = approvals.get(i).get(60, TimeUnit.SECONDS);
+            Exception rejectFailure = rejections.get(i).get(60, TimeUnit.SECONDS);
+            // One decision commits; the other is retried, finds the request decided and reports a conflict
+            assertEquals(approveFailure == null, rejectFailure != null);
+            assertInstanceOf(LeaveConflictException.class, approveFailure == null ? rejectFailure : approveFailure);
+
+            LeaveStatus expected = approveFailure == null ? LeaveStatus.APPROVED : LeaveStatus.REJECTED;
+            assertEquals(expected, leaveRequestRepository.findById(contested.get(i)).orElseThrow().getStatus());
+            if (approveFailure == null) {
+                approved++;
+            }
+        }
+        executor.shutdown();
+
+        // An approval that lost the race leaves no deduction behind
+        LeaveBalance balance = leaveBalanceRepository
+                .findByUserProfile_EmployeeSerialNumberAndYear(EMPLOYEE, LocalDate.now().getYear())
+                .orElseThrow();
+        assertEquals(12 - approved, balance.getCasualLeaveBalance());
+
+        TeamLeaveSummary summary = teamLeaveSummaryRepository
+                .findByReportingOfficerAndYear(OFFICER, LocalDate.now().getYear())
+                .orElseThrow();
+        assertEquals(approved, summary.getApprovedCount());
+        assertEquals(approved, summary.getCasualDaysUsed());
+        assertEquals(REQUESTS - contested.size(), summary.getPendingCount());
+
+        // Only the committed decision recorded an event; the rolled-back attempts left none in the outbox
+        Integer decisionEvents = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leave_event_outbox " +
+                "WHERE event_type IN ('LEAVE_APPROVED', 'LEAVE_REJECTED')", Integer.class);
+        assertEquals(contested.size(), decisionEvents);
+    }
+}
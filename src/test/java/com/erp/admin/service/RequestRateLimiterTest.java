@@ -0,0 +1,102 @@
+package com.erp.admin.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The bucket is driven with a synthetic clock; no Spring context needed
+class RequestRateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    // Arbitrary origin: nanoTime values are only ever compared by difference
+    private static final long T0 = 1_000 * SECOND;
+
+    private final RequestRateLimiter.Limit limit = new RequestRateLimiter.Limit(3, Duration.ofSeconds(2));
+
+    @Test
+    void fullBucketAllowsABurstOfCapacity() {
+        RequestRateLimiter.TokenBucket bucket = new RequestRateLimiter.TokenBucket(limit, T0);
+
+        assertEquals(0, bucket.tryTake(T0));
+        assertEquals(0, bucket.tryTake(T0));
+        assertEquals(0, bucket.tryTake(T0));
+        // Empty: the next token is one refill period away
+        assertEquals(2 * SECOND, bucket.tryTake(T0));
+        // A refused take costs nothing
+        assertEquals(2 * SECOND, bucket.tryTake(T0));
+    }
+
+    @Test
+    void tokensRefillOnePerPeriod() {
+        RequestRateLimiter.TokenBucket bucket = new RequestRateLimiter.TokenBucket(limit, T0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryTake(T0);
+        }
+
+        assertEquals(SECOND, bucket.tryTake(T0 + SECOND));
+        assertEquals(0, bucket.tryTake(T0 + 2 * SECOND));
+        assertEquals(2 * SECOND, bucket.tryTake(T0 + 2 * SECOND));
+        assertEquals(0, bucket.tryTake(T0 + 4 * SECOND));
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToCapacity() {
+        RequestRateLimiter.TokenBucket bucket = new RequestRateLimiter.TokenBucket(limit, T0);
+        bucket.tryTake(T0);
+
+        long later = T0 + 3_600 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(later));
+        }
+        assertEquals(2 * SECOND, bucket.tryTake(later));
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        RequestRateLimiter.TokenBucket bucket = new RequestRateLimiter.TokenBucket(limit, T0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryTake(T0);
+        }
+        long waitNanos = bucket.tryTake(T0 + SECOND / 2);
+        assertEquals(3 * SECOND / 2, waitNanos);
+        assertEquals(2, RequestRateLimiter.retryAfterSeconds(Duration.ofNanos(waitNanos)));
+
+        assertEquals(1, RequestRateLimiter.retryAfterSeconds(Duration.ofNanos(1)));
+        assertEquals(2, RequestRateLimiter.retryAfterSeconds(Duration.ofSeconds(2)));
+        assertEquals(3, RequestRateLimiter.retryAfterSeconds(Duration.ofMillis(2_001)));
+        // Never tells a refused client to retry immediately
+        assertEquals(1, RequestRateLimiter.retryAfterSeconds(Duration.ZERO));
+    }
+
+    @Test
+    void subjectsHaveSeparateBuckets() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("rate-limit.leave-apply.capacity", "2")
+                .withProperty("rate-limit.leave-apply.refill-period", "1h");
+        RequestRateLimiter limiter = new RequestRateLimiter(environment, new SimpleMeterRegistry());
+
+        assertEquals(Duration.ZERO, limiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY, "EMP-001"));
+        assertEquals(Duration.ZERO, limiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY, "EMP-001"));
+        assertTrue(limiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY, "EMP-001").compareTo(Duration.ZERO) > 0);
+        assertEquals(Duration.ZERO, limiter.tryAcquire(RequestRateLimiter.LEAVE_APPLY, "EMP-002"));
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire("unknown", "EMP-001"));
+    }
+
+    @Test
+    void disabledLimiterAlwaysAllows() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("rate-limit.enabled", "false")
+                .withProperty("rate-limit.user-profile-create.capacity", "1");
+        RequestRateLimiter limiter = new RequestRateLimiter(environment, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire(RequestRateLimiter.USER_PROFILE_CREATE, "client:10.0.0.1"));
+        }
+    }
+}